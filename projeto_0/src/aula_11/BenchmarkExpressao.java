@@ -0,0 +1,59 @@
+package aula_11;
+
+import java.util.SplittableRandom;
+
+import lib.Benchmark;
+
+public class BenchmarkExpressao {
+
+    static final String EXPRESSAO = "(a*a + 3*b) % 7";
+
+    // compara a expressão compilada com o interpretador e com a mesma conta
+    // escrita à mão numa lambda
+    // uso: java aula_11.BenchmarkExpressao [chamadas] [expressao]
+    public static void main(String[] args) {
+        int chamadas = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        String expressao = args.length > 1 ? args[1] : EXPRESSAO;
+
+        SplittableRandom random = new SplittableRandom(42);
+        int[] as = new int[1024];
+        int[] bs = new int[1024];
+        for (int i = 0; i < as.length; i++) {
+            as[i] = random.nextInt(-1000, 1000);
+            bs[i] = random.nextInt(-1000, 1000);
+        }
+
+        OperacaoMatematica aMao = (a, b) -> (a * a + 3 * b) % 7;
+        OperacaoMatematica compilada = OperacaoMatematica.compilar(expressao);
+        OperacaoMatematica interpretada = OperacaoMatematica.interpretar(expressao);
+        for (int i = 0; i < as.length; i++) {
+            if (compilada.executar(as[i], bs[i]) != interpretada.executar(as[i], bs[i]))
+                throw new IllegalStateException("Compilada e interpretada diferem em a=" + as[i] + ", b=" + bs[i]);
+        }
+
+        System.out.println(chamadas + " chamadas de " + expressao);
+        // cada variante tem o seu próprio laço, para que a chamada de executar
+        // não veja mais de uma classe e o JIT possa fazer o inline
+        if (expressao.equals(EXPRESSAO)) {
+            Benchmark.nanosPerOp("lambda escrita à mão", chamadas, () -> {
+                long soma = 0;
+                for (int i = 0; i < chamadas; i++)
+                    soma += Calculadora.calcular(aMao, as[i & 1023], bs[i & 1023]);
+                return soma;
+            });
+        }
+        Benchmark.nanosPerOp("compilada", chamadas, () -> {
+            long soma = 0;
+            for (int i = 0; i < chamadas; i++)
+                soma += Calculadora.calcular(compilada, as[i & 1023], bs[i & 1023]);
+            return soma;
+        });
+        Benchmark.nanosPerOp("interpretada", chamadas, () -> {
+            long soma = 0;
+            for (int i = 0; i < chamadas; i++)
+                soma += Calculadora.calcular(interpretada, as[i & 1023], bs[i & 1023]);
+            return soma;
+        });
+    }
+
+}
@@ -0,0 +1,86 @@
+package aula_11;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import lib.Benchmark;
+import lib.IntPipeline;
+
+public class BenchmarkStreams {
+
+    // compara IntPipeline com as mesmas etapas de Streams feitas com
+    // List<Integer>.stream(), que encaixota cada número
+    // uso: java aula_11.BenchmarkStreams [numeros]
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        SplittableRandom random = new SplittableRandom(42);
+
+        int[] numeros = new int[n];
+        int[] densos = new int[n];
+        for (int i = 0; i < n; i++) {
+            numeros[i] = random.nextInt();
+            densos[i] = random.nextInt(n / 4 + 1);
+        }
+        List<Integer> lista = boxed(numeros);
+        List<Integer> listaDensa = boxed(densos);
+
+        String[] nomes = {"São Paulo", "Rio de Janeiro", "Minas Gerais", "Espirito Santo", "Rio Grande do Sul",
+                "Santa Catarina", "Paraná", "Bahia", "Pernambuco", "Ceará"};
+        List<String> estados = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+            estados.add(nomes[random.nextInt(nomes.length)]);
+
+        if (!IntPipeline.of(numeros).map(x -> x * 3).filter(x -> x % 2 == 0).sorted().distinct().toList()
+                .equals(lista.stream().map(x -> x * 3).filter(x -> x % 2 == 0).sorted().distinct()
+                        .collect(Collectors.toList())))
+            throw new IllegalStateException("IntPipeline e stream() deram resultados diferentes.");
+
+        System.out.println(n + " números");
+
+        System.out.println("map + filter");
+        Benchmark.nanosPerOp("  stream() com Integer", n, () -> lista.stream()
+                .map(x -> x * 3).filter(x -> x % 2 == 0).collect(Collectors.toList()).size());
+        Benchmark.nanosPerOp("  parallelStream() com Integer", n, () -> lista.parallelStream()
+                .map(x -> x * 3).filter(x -> x % 2 == 0).collect(Collectors.toList()).size());
+        Benchmark.nanosPerOp("  IntPipeline", n, () -> IntPipeline.of(numeros)
+                .map(x -> x * 3).filter(x -> x % 2 == 0).count());
+        Benchmark.nanosPerOp("  IntPipeline paralelo", n, () -> IntPipeline.of(numeros).parallel()
+                .map(x -> x * 3).filter(x -> x % 2 == 0).count());
+
+        System.out.println("sorted");
+        Benchmark.nanosPerOp("  stream() com Integer", n, () -> lista.stream()
+                .sorted().collect(Collectors.toList()).size());
+        Benchmark.nanosPerOp("  parallelStream() com Integer", n, () -> lista.parallelStream()
+                .sorted().collect(Collectors.toList()).size());
+        Benchmark.nanosPerOp("  IntPipeline (radix)", n, () -> IntPipeline.of(numeros).sorted().count());
+        Benchmark.nanosPerOp("  IntPipeline paralelo (radix)", n, () -> IntPipeline.of(numeros).parallel()
+                .sorted().count());
+
+        System.out.println("distinct, valores esparsos");
+        Benchmark.nanosPerOp("  stream() com Integer", n, () -> lista.stream()
+                .distinct().collect(Collectors.toList()).size());
+        Benchmark.nanosPerOp("  IntPipeline (IntHashSet)", n, () -> IntPipeline.of(numeros).distinct().count());
+
+        System.out.println("distinct, valores densos");
+        Benchmark.nanosPerOp("  stream() com Integer", n, () -> listaDensa.stream()
+                .distinct().collect(Collectors.toList()).size());
+        Benchmark.nanosPerOp("  IntPipeline (bitset)", n, () -> IntPipeline.of(densos).distinct().count());
+        Benchmark.nanosPerOp("  IntPipeline paralelo (bitset)", n, () -> IntPipeline.of(densos).parallel()
+                .distinct().count());
+
+        System.out.println("distinct dos estados");
+        Benchmark.nanosPerOp("  stream() de String", n, () -> estados.stream()
+                .distinct().collect(Collectors.toList()).size());
+        Benchmark.nanosPerOp("  IntPipeline.distinct", n, () -> IntPipeline.distinct(estados).size());
+    }
+
+    static List<Integer> boxed(int[] numeros) {
+        List<Integer> lista = new ArrayList<>(numeros.length);
+        for (int x : numeros)
+            lista.add(x);
+        return lista;
+    }
+
+}
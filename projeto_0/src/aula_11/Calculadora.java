@@ -9,6 +9,14 @@ public class Calculadora {
     public static int calcular(OperacaoMatematica om, int num1, int num2){
         return om.executar(num1, num2);
     }
+
+    // aplica a operação a cada par de valores das duas colunas
+    public static int[] calcular(OperacaoMatematica om, int[] num1, int[] num2){
+        int[] resultado = new int[num1.length];
+        om.executarLote(num1, num2, resultado);
+        return resultado;
+    }
+
     public static void main(String[] args) {
         int num1, num2;
 
@@ -19,6 +27,11 @@ public class Calculadora {
 
         System.out.println("A soma dos dois valores é: " + calcular((a, b) -> a + b, num1, num2));
 
+        System.out.println("Digite uma expressão com a e b, como (a*a + 3*b) % 7: ");
+        leia.nextLine();
+        String expressao = leia.nextLine();
+        System.out.println("O resultado da expressão é: " + calcular(OperacaoMatematica.compilar(expressao), num1, num2));
+
     }
     
 }
@@ -0,0 +1,81 @@
+package aula_11;
+
+import java.util.Objects;
+
+// Operações prontas para executarLote. Cada constante tem o seu próprio laço,
+// sem chamada de interface por linha, e o JIT transforma esses laços em
+// instruções SIMD que processam várias linhas de uma vez.
+public enum OperacaoBasica implements OperacaoMatematica {
+
+    SOMA {
+        @Override
+        public int executar(int a, int b) {
+            return a + b;
+        }
+
+        @Override
+        public void executarLote(int[] a, int[] b, int[] out, int de, int ate) {
+            checar(a, b, out, de, ate);
+            for (int i = de; i < ate; i++)
+                out[i] = a[i] + b[i];
+        }
+    },
+    SUBTRACAO {
+        @Override
+        public int executar(int a, int b) {
+            return a - b;
+        }
+
+        @Override
+        public void executarLote(int[] a, int[] b, int[] out, int de, int ate) {
+            checar(a, b, out, de, ate);
+            for (int i = de; i < ate; i++)
+                out[i] = a[i] - b[i];
+        }
+    },
+    MULTIPLICACAO {
+        @Override
+        public int executar(int a, int b) {
+            return a * b;
+        }
+
+        @Override
+        public void executarLote(int[] a, int[] b, int[] out, int de, int ate) {
+            checar(a, b, out, de, ate);
+            for (int i = de; i < ate; i++)
+                out[i] = a[i] * b[i];
+        }
+    },
+    MINIMO {
+        @Override
+        public int executar(int a, int b) {
+            return Math.min(a, b);
+        }
+
+        @Override
+        public void executarLote(int[] a, int[] b, int[] out, int de, int ate) {
+            checar(a, b, out, de, ate);
+            for (int i = de; i < ate; i++)
+                out[i] = Math.min(a[i], b[i]);
+        }
+    },
+    MAXIMO {
+        @Override
+        public int executar(int a, int b) {
+            return Math.max(a, b);
+        }
+
+        @Override
+        public void executarLote(int[] a, int[] b, int[] out, int de, int ate) {
+            checar(a, b, out, de, ate);
+            for (int i = de; i < ate; i++)
+                out[i] = Math.max(a[i], b[i]);
+        }
+    };
+
+    private static void checar(int[] a, int[] b, int[] out, int de, int ate) {
+        Objects.checkFromToIndex(de, ate, a.length);
+        Objects.checkFromToIndex(de, ate, b.length);
+        Objects.checkFromToIndex(de, ate, out.length);
+    }
+}
@@ -1,6 +1,52 @@
 package aula_11;
 
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import lib.IntExpression;
+
 @FunctionalInterface
 public interface OperacaoMatematica {
+
+    // acima deste número de linhas, executarLote divide as colunas entre os núcleos
+    public static final int LIMIAR_PARALELO = 1 << 16;
+
     public int executar(int a, int b);
+
+    // aplica a operação linha a linha: out[i] = executar(a[i], b[i])
+    public default void executarLote(int[] a, int[] b, int[] out) {
+        if (a.length != b.length || out.length < a.length)
+            throw new IllegalArgumentException("As colunas precisam ter o mesmo tamanho.");
+        int n = a.length;
+        if (n < LIMIAR_PARALELO) {
+            executarLote(a, b, out, 0, n);
+            return;
+        }
+
+        int bloco = Math.max(LIMIAR_PARALELO, n / (4 * Runtime.getRuntime().availableProcessors()));
+        IntStream.range(0, (n + bloco - 1) / bloco)
+            .parallel()
+            .forEach(i -> executarLote(a, b, out, i * bloco, Math.min(n, i * bloco + bloco)));
+    }
+
+    // o trecho [de, ate) das colunas; as operações de OperacaoBasica trocam
+    // este laço por um que o JIT consegue vetorizar
+    public default void executarLote(int[] a, int[] b, int[] out, int de, int ate) {
+        Objects.checkFromToIndex(de, ate, a.length);
+        Objects.checkFromToIndex(de, ate, b.length);
+        Objects.checkFromToIndex(de, ate, out.length);
+        for (int i = de; i < ate; i++)
+            out[i] = executar(a[i], b[i]);
+    }
+
+    // compila uma expressão sobre a e b, como "(a*a + 3*b) % 7", numa classe
+    // que roda tão rápido quanto uma lambda escrita à mão
+    public static OperacaoMatematica compilar(String expressao) {
+        return IntExpression.parse(expressao).compile(OperacaoMatematica.class);
+    }
+
+    // mesma expressão, mas interpretada a cada chamada
+    public static OperacaoMatematica interpretar(String expressao) {
+        return IntExpression.parse(expressao)::evaluate;
+    }
 }
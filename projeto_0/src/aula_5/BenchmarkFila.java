@@ -0,0 +1,115 @@
+package aula_5;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import lib.Benchmark;
+import lib.RingQueue;
+
+public class BenchmarkFila {
+
+	static final int LOTE = 64;
+	static final String CLIENTE = "cliente";
+
+	/**
+	 * Compara a RingQueue com LinkedList, ArrayDeque e ConcurrentLinkedQueue:
+	 * primeiro numa thread só, como em Fila e ExLista2_1, depois com várias
+	 * threads produzindo e consumindo ao mesmo tempo.
+	 * Uso: java aula_5.BenchmarkFila [clientes] [max_threads]
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int clientes = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+		System.out.println(clientes + " clientes, uma thread (offer de " + LOTE + " e poll de " + LOTE + ")");
+		umaThread("LinkedList", LinkedList::new, clientes);
+		umaThread("ArrayDeque", ArrayDeque::new, clientes);
+		umaThread("ConcurrentLinkedQueue", ConcurrentLinkedQueue::new, clientes);
+		umaThread("RingQueue", () -> new RingQueue<>(1024), clientes);
+
+		// drainTo tira o lote inteiro com um único CAS
+		ArrayList<String> atendidos = new ArrayList<>(LOTE);
+		Benchmark.nanosPerOp("RingQueue com drainTo", clientes, () -> {
+			RingQueue<String> fila = new RingQueue<>(1024);
+			long soma = 0;
+			for (int i = 0; i < clientes; i += LOTE) {
+				for (int j = 0; j < LOTE; j++)
+					fila.offer(CLIENTE);
+				atendidos.clear();
+				soma += fila.drainTo(atendidos);
+			}
+			return soma;
+		});
+
+		// LinkedList e ArrayDeque não são thread-safe, então entram só as filas concorrentes
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			System.out.println("\n" + threads + " produtor(es) e " + threads + " consumidor(es)");
+			varias("ArrayBlockingQueue", () -> new ArrayBlockingQueue<>(1 << 16), clientes, threads);
+			varias("ConcurrentLinkedQueue", ConcurrentLinkedQueue::new, clientes, threads);
+			varias("RingQueue", () -> new RingQueue<>(1 << 16), clientes, threads);
+		}
+	}
+
+	static void umaThread(String nome, Supplier<Queue<String>> nova, int clientes) {
+		Benchmark.nanosPerOp(nome, clientes, () -> {
+			Queue<String> fila = nova.get();
+			long soma = 0;
+			for (int i = 0; i < clientes; i += LOTE) {
+				for (int j = 0; j < LOTE; j++)
+					fila.offer(CLIENTE);
+				for (int j = 0; j < LOTE; j++)
+					soma += fila.poll().length();
+			}
+			return soma;
+		});
+	}
+
+	static void varias(String nome, Supplier<Queue<String>> nova, int clientes, int threads) {
+		Benchmark.nanosPerOp(nome, clientes, () -> {
+			Queue<String> fila = nova.get();
+			Thread[] todas = new Thread[threads * 2];
+			long[] atendidos = new long[threads];
+
+			for (int t = 0; t < threads; t++) {
+				int parte = clientes / threads + (t < clientes % threads ? 1 : 0);
+				int consumidor = t;
+				todas[t] = new Thread(() -> {
+					for (int i = 0; i < parte; i++) {
+						while (!fila.offer(CLIENTE))
+							Thread.yield();
+					}
+				});
+				todas[threads + t] = new Thread(() -> {
+					long soma = 0;
+					for (int i = 0; i < parte; i++) {
+						String cliente;
+						while ((cliente = fila.poll()) == null)
+							Thread.yield();
+						soma += cliente.length();
+					}
+					atendidos[consumidor] = soma;
+				});
+			}
+
+			for (Thread t : todas)
+				t.start();
+			long soma = 0;
+			try {
+				for (Thread t : todas)
+					t.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+			for (long a : atendidos)
+				soma += a;
+			return soma;
+		});
+	}
+
+}
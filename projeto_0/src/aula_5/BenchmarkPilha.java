@@ -0,0 +1,145 @@
+package aula_5;
+
+import java.util.ArrayDeque;
+import java.util.Stack;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Supplier;
+
+import lib.ArrayStack;
+import lib.Benchmark;
+import lib.TreiberStack;
+
+public class BenchmarkPilha {
+
+	static final int LOTE = 64;
+	static final String ITEM = "item";
+
+	/**
+	 * Um push seguido de um pop, o mesmo contrato para as pilhas medidas.
+	 */
+	interface Operacao {
+		long pushPop();
+	}
+
+	/**
+	 * Compara ArrayStack e TreiberStack com java.util.Stack, que sincroniza em
+	 * cada operação: primeiro numa thread só, como em Pilha e ExLista2_2, depois
+	 * com 1 a 32 threads fazendo push e pop na mesma pilha.
+	 * Uso: java aula_5.BenchmarkPilha [operacoes] [max_threads]
+	 */
+	public static void main(String[] args) {
+		int operacoes = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+
+		System.out.println(operacoes + " push + pop, uma thread (push de " + LOTE + " e pop de " + LOTE + ")");
+		// as pilhas são criadas fora do lambda, senão o JIT pode eliminar a pilha inteira
+		Stack<String> stack = new Stack<>();
+		Benchmark.nanosPerOp("java.util.Stack", operacoes, () -> {
+			long soma = 0;
+			for (int i = 0; i < operacoes; i += LOTE) {
+				for (int j = 0; j < LOTE; j++)
+					stack.push(ITEM);
+				for (int j = 0; j < LOTE; j++)
+					soma += stack.pop().length();
+			}
+			return soma;
+		});
+		ArrayDeque<String> deque = new ArrayDeque<>();
+		Benchmark.nanosPerOp("ArrayDeque", operacoes, () -> {
+			long soma = 0;
+			for (int i = 0; i < operacoes; i += LOTE) {
+				for (int j = 0; j < LOTE; j++)
+					deque.push(ITEM);
+				for (int j = 0; j < LOTE; j++)
+					soma += deque.pop().length();
+			}
+			return soma;
+		});
+		ArrayStack<String> arrayStack = new ArrayStack<>();
+		Benchmark.nanosPerOp("ArrayStack", operacoes, () -> {
+			long soma = 0;
+			for (int i = 0; i < operacoes; i += LOTE) {
+				for (int j = 0; j < LOTE; j++)
+					arrayStack.push(ITEM);
+				for (int j = 0; j < LOTE; j++)
+					soma += arrayStack.pop().length();
+			}
+			return soma;
+		});
+		TreiberStack<String> treiber = new TreiberStack<>();
+		Benchmark.nanosPerOp("TreiberStack", operacoes, () -> {
+			long soma = 0;
+			for (int i = 0; i < operacoes; i += LOTE) {
+				for (int j = 0; j < LOTE; j++)
+					treiber.push(ITEM);
+				for (int j = 0; j < LOTE; j++)
+					soma += treiber.pop().length();
+			}
+			return soma;
+		});
+
+		// ArrayStack e ArrayDeque não são thread-safe, então entram só as pilhas concorrentes
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			System.out.println("\n" + threads + " thread(s)");
+			varias("java.util.Stack", () -> {
+				Stack<String> pilha = new Stack<>();
+				return () -> {
+					pilha.push(ITEM);
+					return pilha.pop().length();
+				};
+			}, operacoes, threads);
+			varias("ConcurrentLinkedDeque", () -> {
+				ConcurrentLinkedDeque<String> pilha = new ConcurrentLinkedDeque<>();
+				return () -> {
+					pilha.push(ITEM);
+					return pilha.pop().length();
+				};
+			}, operacoes, threads);
+			varias("TreiberStack", () -> {
+				TreiberStack<String> pilha = new TreiberStack<>();
+				return () -> {
+					pilha.push(ITEM);
+					return pilha.pop().length();
+				};
+			}, operacoes, threads);
+		}
+	}
+
+	/**
+	 * Divide as operações entre as threads, todas usando a mesma pilha. Cada
+	 * thread empilha antes de desempilhar, então a pilha nunca está vazia num pop.
+	 */
+	static void varias(String nome, Supplier<Operacao> nova, int operacoes, int threads) {
+		Benchmark.nanosPerOp(nome, operacoes, () -> {
+			Operacao pilha = nova.get();
+			Thread[] todas = new Thread[threads];
+			long[] somas = new long[threads];
+
+			for (int t = 0; t < threads; t++) {
+				int parte = operacoes / threads + (t < operacoes % threads ? 1 : 0);
+				int indice = t;
+				todas[t] = new Thread(() -> {
+					long soma = 0;
+					for (int i = 0; i < parte; i++)
+						soma += pilha.pushPop();
+					somas[indice] = soma;
+				});
+			}
+
+			for (Thread t : todas)
+				t.start();
+			try {
+				for (Thread t : todas)
+					t.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			}
+			long soma = 0;
+			for (long s : somas)
+				soma += s;
+			return soma;
+		});
+	}
+
+}
@@ -1,13 +1,14 @@
 package aula_5;
 
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.Queue;
 
+import lib.RingQueue;
+
 public class Fila {
 
 	public static void main(String[] args) {
-		Queue<String> fila = new LinkedList<String>();
+		Queue<String> fila = new RingQueue<String>(16);
 		
 		fila.add("Rony");
 		fila.add("Lucas");
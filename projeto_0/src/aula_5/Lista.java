@@ -1,15 +1,27 @@
 package aula_5;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Scanner;
 
+import lib.DurableDoubleList;
+
 public class Lista {
 	
 	static Scanner leia = new Scanner(System.in);
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
+		
+		try(DurableDoubleList notas = DurableDoubleList.builder(Path.of("notas")).useIndex(true).open()) {
+			if(!notas.isEmpty())
+				System.out.println(notas.size() + " notas recuperadas do disco.");
+			menu(notas);
+		}
+			
+	}
+	
+	static void menu(DurableDoubleList notas) {
 		
-		ArrayList<Double> notas = new ArrayList<Double>();
 		int op = 0;
 		double nota = 0.0;
 		
@@ -44,9 +56,10 @@ public class Lista {
 			case 3:
 				System.out.println("\nprocurar nota: ");
 				nota = leia.nextDouble();
-				System.out.println("A nota " + nota + " existe? " + notas.contains(nota));
-				if(notas.contains(nota))
-					System.out.printf("O índice da nota é: " + notas.indexOf(nota));
+				int indice = notas.indexOf(nota);
+				System.out.println("A nota " + nota + " existe? " + (indice >= 0));
+				if(indice >= 0)
+					System.out.printf("O índice da nota é: " + indice);
 				else
 					System.out.println("Esse número não foi achado...");
 				System.out.println();
@@ -55,7 +68,8 @@ public class Lista {
 				System.out.println();
 				System.out.println("Remover nota: ");
 				nota = leia.nextDouble();
-				notas.remove(notas.indexOf(nota));
+				if(!notas.remove(nota))
+					System.out.println("Esse número não foi achado...");
 				break;
 			case 5:
 				System.out.println("Atualizar nota:");
@@ -63,7 +77,8 @@ public class Lista {
 				nota = leia.nextDouble();
 				System.out.println("Nova nota: ");
 				double novanota = leia.nextDouble();
-				notas.set(notas.indexOf(nota), novanota);
+				if(!notas.replace(nota, novanota))
+					System.out.println("Esse número não foi achado...");
 			default:
 				if(op > 6 || op < 1)
 					System.out.println("Opção inválida...");
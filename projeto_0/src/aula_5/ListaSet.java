@@ -1,13 +1,12 @@
 package aula_5;
 
-import java.util.HashSet;
-import java.util.Set;
+import lib.DoubleHashSet;
 
 public class ListaSet {
 
 	public static void main(String[] args) {
 		//Usado em criptografia
-		Set<Double> notas = new HashSet<Double>();
+		DoubleHashSet notas = new DoubleHashSet();
 		
 		notas.add(7.0);
 		notas.add(5.0);
@@ -27,9 +26,7 @@ public class ListaSet {
 		System.out.println();
 		System.out.println("A nota 7 existe? " + notas.contains(7.0));
 		System.out.println();
-		for(var nota : notas) {
-			System.out.println(nota.hashCode());
-		}
+		notas.forEach(nota -> System.out.println(Double.hashCode(nota)));
 		
 	}
 
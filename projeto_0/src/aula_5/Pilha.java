@@ -1,11 +1,11 @@
 package aula_5;
 
-import java.util.Stack;
+import lib.ArrayStack;
 
 public class Pilha {
 
 	public static void main(String[] args) {
-		Stack<String> pilha = new Stack<String>();
+		ArrayStack<String> pilha = new ArrayStack<String>();
 		
 		pilha.push("Rony");
 		pilha.push("Lucas");
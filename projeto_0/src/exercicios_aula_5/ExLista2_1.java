@@ -1,20 +1,27 @@
 package exercicios_aula_5;
 
-import java.util.LinkedList;
 import java.util.Queue;
 import java.util.Scanner;
 
+import lib.RingQueue;
+import lib.TellerSimulation;
+
 public class ExLista2_1 {
 	
 	static Scanner leia = new Scanner(System.in);
 
-	public static void main(String[] args) {
-		Queue<String> fila = new LinkedList<String>();
+	public static void main(String[] args) throws InterruptedException {
+		if(args.length > 0) {
+			simular(args);
+			return;
+		}
+		
+		Queue<String> fila = new RingQueue<String>(1024);
 		int op;
 		String cliente;
 		
 		do {
-			System.out.printf("\n1-Adicionar Cliente na fila\n2-Listar todos os clientes\n3-Retirar cliente da fila\n0-Sair");
+			System.out.printf("\n1-Adicionar Cliente na fila\n2-Listar todos os clientes\n3-Retirar cliente da fila\n4-Simular atendimento\n0-Sair");
 			System.out.println("\nSua opção: ");
 			op = leia.nextInt();
 			
@@ -23,8 +30,10 @@ public class ExLista2_1 {
 				System.out.println("Nome do cliente: ");
 				leia.skip("\\R?");
 				cliente = leia.nextLine();
-				fila.add(cliente);
-				System.out.println("\nCliente adicionado!\n");
+				if(fila.offer(cliente))
+					System.out.println("\nCliente adicionado!\n");
+				else
+					System.out.println("\nFila cheia...\n");
 				break;
 			case 2:
 				System.out.println("\nLista de clientes na fila: ");
@@ -49,6 +58,17 @@ public class ExLista2_1 {
 				else
 					fila.forEach(System.out::println);
 				break;
+			case 4:
+				System.out.println("Número de clientes: ");
+				long clientes = leia.nextLong();
+				System.out.println("Número de caixas: ");
+				int caixas = leia.nextInt();
+				System.out.println(TellerSimulation.builder()
+						.tellers(caixas)
+						.customers(clientes)
+						.build()
+						.run());
+				break;
 			case 0:
 				System.out.println("programa finalizado! Volte sempre!");
 				break;
@@ -59,5 +79,23 @@ public class ExLista2_1 {
 		}while(op != 0);
 
 	}
+	
+	/**
+	 * Modo sem menu, para simular milhões de clientes:
+	 * clientes caixas [chegadas] [atendimento_us] [platform|virtual] [sleep|nosleep]
+	 */
+	static void simular(String[] args) throws InterruptedException {
+		TellerSimulation.Builder simulacao = TellerSimulation.builder()
+				.customers(Long.parseLong(args[0]))
+				.tellers(args.length > 1 ? Integer.parseInt(args[1]) : 1)
+				.arrivals(args.length > 2 ? Integer.parseInt(args[2]) : 1)
+				.meanServiceNanos(args.length > 3 ? Long.parseLong(args[3]) * 1000 : 100_000);
+		if(args.length > 4)
+			simulacao.scheduling(TellerSimulation.Scheduling.valueOf(args[4].toUpperCase()));
+		if(args.length > 5)
+			simulacao.sleep(!args[5].equals("nosleep"));
+		
+		System.out.println(simulacao.build().run());
+	}
 
 }
@@ -2,14 +2,15 @@ package exercicios_aula_5;
 
 
 import java.util.Scanner;
-import java.util.Stack;
+
+import lib.ArrayStack;
 
 public final class ExLista2_2 {
 	
 	static Scanner leia = new Scanner(System.in);
 
 	public static void main(String[] args) {
-		Stack<String> pilha = new Stack<String>();
+		ArrayStack<String> pilha = new ArrayStack<String>();
 		int op;
 		String livro;
 		
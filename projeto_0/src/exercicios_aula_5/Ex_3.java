@@ -1,17 +1,17 @@
 package exercicios_aula_5;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.Iterator;
+import java.util.PrimitiveIterator;
 import java.util.Scanner;
 
+import lib.IntHashSet;
+
 public class Ex_3 {
 	
 	static Scanner leia = new Scanner(System.in);
 
 	public static void main(String[] args) {
-		Set<Integer> num = new HashSet<Integer>();
-		Integer n;
+		IntHashSet num = new IntHashSet();
+		int n;
 		
 		for(int i = 0; i < 10; i++) {
 			System.out.println("Digite um número [Não pode repetir]: ");
@@ -19,9 +19,9 @@ public class Ex_3 {
 			num.add(n);
 		}
 		System.out.println("\nListar os dados do set: ");
-		Iterator<Integer> inum = num.iterator();
+		PrimitiveIterator.OfInt inum = num.iterator();
 		while(inum.hasNext()) {
-			System.out.println(inum.next());
+			System.out.println(inum.nextInt());
 		}
 		
 	}
@@ -1,15 +1,15 @@
 package exercicios_aula_5;
 
-import java.util.HashSet;
 import java.util.Scanner;
-import java.util.Set;
+
+import lib.IntHashSet;
 
 public class Ex_4 {
 	
 	static Scanner leia = new Scanner(System.in);
 
 	public static void main(String[] args) {
-		Set<Integer> numeros = new HashSet<Integer>();
+		IntHashSet numeros = new IntHashSet();
 		int num;
 		
 		numeros.add(2);
@@ -0,0 +1,156 @@
+package lib;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.EmptyStackException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A stack backed by an array, with the push/pop/peek/isEmpty/forEach surface
+ * of {@link java.util.Stack} but without its locks. Use {@link TreiberStack}
+ * when several threads share the stack.
+ *
+ * The array doubles when it is full and halves when it is only a quarter used,
+ * so a stack that once held many elements gives the memory back as it is
+ * emptied. As in {@link java.util.Stack}, iteration goes from the bottom to the
+ * top of the stack.
+ *
+ * @param <E> The type of the elements.
+ */
+public final class ArrayStack<E> implements Iterable<E> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private Object[] elements = new Object[MIN_CAPACITY];
+    private int size;
+    private int modCount;
+
+    /**
+     * Pushes an element onto the top of the stack.
+     *
+     * @param item The element to push.
+     * @return The element.
+     */
+    public E push(E item) {
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, size * 2);
+        elements[size++] = item;
+        modCount++;
+        return item;
+    }
+
+    /**
+     * Removes the element at the top of the stack.
+     *
+     * @return The removed element.
+     * @throws EmptyStackException If the stack is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E pop() {
+        if (size == 0)
+            throw new EmptyStackException();
+
+        E item = (E) elements[--size];
+        elements[size] = null;
+        modCount++;
+
+        if (elements.length > MIN_CAPACITY && size <= elements.length / 4)
+            elements = Arrays.copyOf(elements, Math.max(MIN_CAPACITY, elements.length / 2));
+        return item;
+    }
+
+    /**
+     * Returns the element at the top of the stack without removing it.
+     *
+     * @return The top element.
+     * @throws EmptyStackException If the stack is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        if (size == 0)
+            throw new EmptyStackException();
+        return (E) elements[size - 1];
+    }
+
+    /**
+     * Checks whether the stack has no elements.
+     *
+     * @return true if the stack is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of elements in the stack.
+     *
+     * @return The size of the stack.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the length of the backing array.
+     *
+     * @return The number of elements the stack holds before it grows.
+     */
+    int capacity() {
+        return elements.length;
+    }
+
+    /**
+     * Calls 'action' with every element, from the bottom to the top.
+     *
+     * @param action The action to run for each element.
+     * @throws ConcurrentModificationException If the action changes the stack.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        int expected = modCount;
+        for (int i = 0; i < size; i++) {
+            action.accept((E) elements[i]);
+            if (modCount != expected)
+                throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * Returns an iterator from the bottom to the top of the stack.
+     *
+     * @return An iterator that does not support {@link Iterator#remove()}.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private final int expected = modCount;
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (modCount != expected)
+                    throw new ConcurrentModificationException();
+                if (next >= size)
+                    throw new NoSuchElementException();
+                return (E) elements[next++];
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(elements, size));
+    }
+
+}
@@ -0,0 +1,61 @@
+package lib;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A small timing loop for the benchmarks that are run from a {@code main}
+ * method.
+ *
+ * Each measurement first runs the body for a few untimed rounds, so the JIT
+ * has compiled it, and then reports the fastest of several timed rounds, the
+ * one least disturbed by garbage collection and other threads. The body
+ * returns a value that is folded into a volatile field, so the JIT cannot drop
+ * the work as dead code. It is not JMH: there is no fork per measurement, so
+ * the order of the measurements can still affect the profile the JIT sees.
+ */
+public final class Benchmark {
+
+    /**
+     * Untimed rounds before the timed ones.
+     */
+    static final int WARMUP_ROUNDS = 5;
+
+    /**
+     * Timed rounds; the fastest one is reported.
+     */
+    static final int ROUNDS = 5;
+
+    private static volatile long sink;
+
+    private Benchmark() {
+    }
+
+    /**
+     * Times a body and prints the result as one line.
+     *
+     * @param name The label printed with the result.
+     * @param ops  The number of operations one call of 'body' performs.
+     * @param body The work of one round. Its result is consumed.
+     * @return The time per operation in nanoseconds, from the fastest round.
+     * @throws IllegalArgumentException If 'ops' is less than 1.
+     */
+    public static double nanosPerOp(String name, long ops, LongSupplier body) {
+        if (ops < 1)
+            throw new IllegalArgumentException("ops must be at least 1.");
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink ^= body.getAsLong();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink ^= body.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double perOp = (double) best / ops;
+        System.out.printf("%-44s %12.2f ns/op%n", name, perOp);
+        return perOp;
+    }
+
+}
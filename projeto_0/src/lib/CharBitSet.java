@@ -0,0 +1,85 @@
+package lib;
+
+/**
+ * A set of {@code char} values stored as bits instead of boxed
+ * {@link Character} objects.
+ *
+ * ASCII and Latin-1 characters live in four {@code long} fields, so strings
+ * made only of them never touch an array. Characters above Latin-1 go to a
+ * small open-addressing table that grows with the number of such characters,
+ * so a word in another script costs a few dozen bytes, not a bitset for the
+ * whole UTF-16 range. No character in the table is below 256, so 0 marks a free
+ * slot.
+ */
+final class CharBitSet {
+
+    private long w0, w1, w2, w3;
+    private char[] wide;
+    private int wideSize;
+
+    /**
+     * Adds a character to the set.
+     *
+     * @param c The character to add.
+     * @return true if the character was not in the set yet, false otherwise.
+     */
+    boolean add(char c) {
+        long bit = 1L << c;
+        long old;
+
+        switch (c >>> 6) {
+            case 0:
+                old = w0;
+                w0 |= bit;
+                break;
+            case 1:
+                old = w1;
+                w1 |= bit;
+                break;
+            case 2:
+                old = w2;
+                w2 |= bit;
+                break;
+            case 3:
+                old = w3;
+                w3 |= bit;
+                break;
+            default:
+                return addWide(c);
+        }
+        return (old & bit) == 0;
+    }
+
+    private boolean addWide(char c) {
+        if (wide == null)
+            wide = new char[16];
+
+        int mask = wide.length - 1;
+        int i = slot(c, mask);
+        for (char k; (k = wide[i]) != 0; i = (i + 1) & mask) {
+            if (k == c)
+                return false;
+        }
+        wide[i] = c;
+
+        if (++wideSize > (wide.length >> 2) * 3) {
+            char[] old = wide;
+            wide = new char[old.length * 2];
+            mask = wide.length - 1;
+            for (char k : old) {
+                if (k != 0) {
+                    int j = slot(k, mask);
+                    while (wide[j] != 0)
+                        j = (j + 1) & mask;
+                    wide[j] = k;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int slot(char c, int mask) {
+        return (c * 0x9E3779B9 >>> 16) & mask;
+    }
+
+}
@@ -0,0 +1,272 @@
+package lib;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Counts how many times each {@code char} occurs, without boxing.
+ *
+ * ASCII characters are counted in a dense {@code long[128]} table. Every other
+ * character goes to a small open-addressing table keyed by the character, so a
+ * mostly-ASCII text never pays for the whole UTF-16 range. Histograms built
+ * over separate chunks can be combined with {@link #merge(CharHistogram)}.
+ */
+public final class CharHistogram {
+
+    /**
+     * Number of chars (or bytes, for files) each parallel task counts.
+     */
+    static final int CHUNK = 1 << 26;
+
+    private static final int DENSE = 128;
+
+    private final long[] dense = new long[DENSE];
+    private char[] keys = new char[16];
+    private long[] counts = new long[16];
+    private int sparseSize;
+
+    /**
+     * Receives one entry of the histogram.
+     */
+    @FunctionalInterface
+    public interface CharCountConsumer {
+        void accept(char c, long count);
+    }
+
+    /**
+     * Counts the characters of a string.
+     *
+     * @param str The input string to be analyzed.
+     * @return The histogram of the string.
+     */
+    public static CharHistogram of(CharSequence str) {
+        CharHistogram histogram = new CharHistogram();
+        histogram.add(str, 0, str.length());
+        return histogram;
+    }
+
+    /**
+     * Counts the characters of a string, splitting it in chunks that are counted
+     * in parallel and then merged.
+     *
+     * @param str The input string to be analyzed.
+     * @return The histogram of the string.
+     */
+    public static CharHistogram ofParallel(CharSequence str) {
+        int n = str.length();
+        int chunks = (n + CHUNK - 1) / CHUNK;
+
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> {
+                    CharHistogram histogram = new CharHistogram();
+                    histogram.add(str, c * CHUNK, (int) Math.min(n, (c + 1L) * CHUNK));
+                    return histogram;
+                })
+                .collect(CharHistogram::new, CharHistogram::merge, CharHistogram::merge);
+    }
+
+    /**
+     * Counts the characters of a UTF-8 file. The file is memory-mapped in chunks
+     * that are decoded in parallel, so it is never loaded as a {@link String}.
+     * Characters outside the Basic Multilingual Plane count as their two
+     * surrogates, as in a {@link String}, and malformed bytes count as U+FFFD,
+     * one for each maximal ill-formed subpart.
+     *
+     * @param file The UTF-8 file to be analyzed.
+     * @return The histogram of the decoded text.
+     * @throws IOException If the file cannot be read.
+     */
+    public static CharHistogram of(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) ((size + CHUNK - 1) / CHUNK);
+
+            return IntStream.range(0, chunks).parallel()
+                    .mapToObj(c -> {
+                        try {
+                            return decodeChunk(channel, size, (long) c * CHUNK);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .collect(CharHistogram::new, CharHistogram::merge, CharHistogram::merge);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Decodes the UTF-8 sequences that start in {@code [start, start + CHUNK)}.
+     * The three bytes before the chunk are mapped too, to skip the bytes that
+     * belong to a sequence decoded by the previous chunk, and the last sequence
+     * may read up to three bytes past the end of the chunk.
+     */
+    private static CharHistogram decodeChunk(FileChannel channel, long size, long start) throws IOException {
+        int back = (int) Math.min(start, 3);
+        long mapped = back + Math.min(size - start, CHUNK + 3L);
+        int end = back + (int) Math.min(size - start, CHUNK);
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, start - back, mapped);
+        int limit = buf.limit();
+        CharHistogram histogram = new CharHistogram();
+
+        int i = Utf8Decoder.resume(buf, 0, back, limit);
+        while (i < end) {
+            int b = buf.get(i);
+            if (b >= 0) {
+                histogram.dense[b]++;
+                i++;
+                continue;
+            }
+
+            int decoded = Utf8Decoder.decode(buf, i, limit);
+            int cp = Utf8Decoder.codePoint(decoded);
+            if (cp >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                histogram.add(Character.highSurrogate(cp));
+                histogram.add(Character.lowSurrogate(cp));
+            } else {
+                histogram.add((char) cp);
+            }
+            i += Utf8Decoder.length(decoded);
+        }
+        return histogram;
+    }
+
+    /**
+     * Counts one occurrence of a character.
+     *
+     * @param c The character to count.
+     */
+    public void add(char c) {
+        add(c, 1);
+    }
+
+    /**
+     * Counts the characters of {@code str} in {@code [from, to)}.
+     *
+     * @param str  The input string to be analyzed.
+     * @param from The first position to count, inclusive.
+     * @param to   The last position to count, exclusive.
+     */
+    public void add(CharSequence str, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = str.charAt(i);
+            if (c < DENSE)
+                dense[c]++;
+            else
+                add(c, 1);
+        }
+    }
+
+    private void add(char c, long n) {
+        if (c < DENSE) {
+            dense[c] += n;
+            return;
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(c) & mask;
+        while (counts[slot] != 0 && keys[slot] != c) {
+            slot = (slot + 1) & mask;
+        }
+
+        if (counts[slot] == 0) {
+            keys[slot] = c;
+            if (++sparseSize * 2 > keys.length) {
+                counts[slot] = n;
+                grow();
+                return;
+            }
+        }
+        counts[slot] += n;
+    }
+
+    private static int mix(char c) {
+        return (c * 0x9E3779B9) >>> 16;
+    }
+
+    private void grow() {
+        char[] oldKeys = keys;
+        long[] oldCounts = counts;
+        keys = new char[oldKeys.length * 2];
+        counts = new long[oldCounts.length * 2];
+        sparseSize = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0)
+                add(oldKeys[i], oldCounts[i]);
+        }
+    }
+
+    /**
+     * Returns how many times a character was counted.
+     *
+     * @param c The character to look up.
+     * @return The number of occurrences of 'c'.
+     */
+    public long get(char c) {
+        if (c < DENSE)
+            return dense[c];
+
+        int mask = keys.length - 1;
+        for (int slot = mix(c) & mask; counts[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == c)
+                return counts[slot];
+        }
+        return 0;
+    }
+
+    /**
+     * Adds every count of another histogram to this one.
+     *
+     * @param other The histogram to merge into this one.
+     * @return This histogram, to allow chaining and use as a reducer.
+     */
+    public CharHistogram merge(CharHistogram other) {
+        for (int c = 0; c < DENSE; c++) {
+            dense[c] += other.dense[c];
+        }
+
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.counts[i] != 0)
+                add(other.keys[i], other.counts[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Visits every character with a non-zero count, ASCII characters first.
+     *
+     * @param action The consumer receiving each character and its count.
+     */
+    public void forEach(CharCountConsumer action) {
+        for (int c = 0; c < DENSE; c++) {
+            if (dense[c] != 0)
+                action.accept((char) c, dense[c]);
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            if (counts[i] != 0)
+                action.accept(keys[i], counts[i]);
+        }
+    }
+
+    /**
+     * Copies the histogram into a map, for callers of
+     * {@link StrsCodeWars#count(String)}.
+     *
+     * @return A new map from each character to its number of occurrences.
+     */
+    public Map<Character, Integer> toMap() {
+        Map<Character, Integer> map = new HashMap<>();
+        forEach((c, count) -> map.put(c, (int) count));
+        return map;
+    }
+
+}
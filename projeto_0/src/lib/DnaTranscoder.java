@@ -0,0 +1,176 @@
+package lib;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming version of {@link StrsCodeWars#dnaToRna(String)} for FASTA files
+ * that are too large to hold as a {@link String}.
+ *
+ * Files are memory-mapped in windows and rewritten 8 bytes at a time. Header
+ * lines (starting with '>') are copied unchanged; in sequence lines every 'T'
+ * becomes 'U' and every soft-masked 't' becomes 'u'. The output has exactly the
+ * size of the input, so it can also be written over the input itself.
+ */
+public final class DnaTranscoder {
+
+    /**
+     * Number of bytes mapped at a time.
+     */
+    static final int WINDOW = 1 << 28;
+
+    private DnaTranscoder() {
+    }
+
+    /**
+     * Writes the RNA version of a FASTA file to another file.
+     *
+     * @param fasta The DNA FASTA file.
+     * @param out   The file that receives the RNA version. It is created or
+     *              truncated.
+     * @return The number of bases rewritten from T to U.
+     * @throws IOException If either file cannot be read or written.
+     */
+    public static long transcribe(Path fasta, Path out) throws IOException {
+        try (FileChannel in = FileChannel.open(fasta, StandardOpenOption.READ);
+                FileChannel dst = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Transcription state = new Transcription();
+            long size = in.size();
+
+            for (long pos = 0; pos < size; pos += WINDOW) {
+                int length = (int) Math.min(WINDOW, size - pos);
+                MappedByteBuffer src = in.map(FileChannel.MapMode.READ_ONLY, pos, length);
+                MappedByteBuffer target = dst.map(FileChannel.MapMode.READ_WRITE, pos, length);
+                state.run(src, target, length);
+            }
+            return state.converted;
+        }
+    }
+
+    /**
+     * Rewrites a FASTA file from DNA to RNA in place.
+     *
+     * @param fasta The DNA FASTA file, which becomes an RNA FASTA file.
+     * @return The number of bases rewritten from T to U.
+     * @throws IOException If the file cannot be read or written.
+     */
+    public static long transcribeInPlace(Path fasta) throws IOException {
+        try (FileChannel channel = FileChannel.open(fasta, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Transcription state = new Transcription();
+            long size = channel.size();
+
+            for (long pos = 0; pos < size; pos += WINDOW) {
+                int length = (int) Math.min(WINDOW, size - pos);
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_WRITE, pos, length);
+                state.run(buf, buf, length);
+                buf.force();
+            }
+            return state.converted;
+        }
+    }
+
+    /**
+     * Reads every record of a FASTA file into its 2-bit packed form. Line breaks
+     * are skipped, so each record becomes one continuous sequence.
+     *
+     * @param fasta The FASTA file.
+     * @return One packed sequence per record, in file order.
+     * @throws IOException              If the file cannot be read.
+     * @throws IllegalArgumentException If a sequence line has a character other
+     *                                  than A, C, G, T or U.
+     */
+    public static List<PackedDna> pack(Path fasta) throws IOException {
+        List<PackedDna> records = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(fasta, StandardOpenOption.READ)) {
+            long size = channel.size();
+            PackedDna.Builder record = null;
+            boolean inHeader = false;
+
+            for (long pos = 0; pos < size; pos += WINDOW) {
+                int length = (int) Math.min(WINDOW, size - pos);
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, length);
+
+                for (int i = 0; i < length; i++) {
+                    byte b = buf.get(i);
+                    if (inHeader) {
+                        inHeader = b != '\n';
+                    } else if (b == '>') {
+                        if (record != null)
+                            records.add(record.build());
+                        record = new PackedDna.Builder();
+                        inHeader = true;
+                    } else if (b != '\n' && b != '\r') {
+                        if (record == null)
+                            record = new PackedDna.Builder();
+                        if (!record.append(b)) {
+                            throw new IllegalArgumentException(
+                                    "Invalid base '" + (char) (b & 0xFF) + "' at byte " + (pos + i) + ".");
+                        }
+                    }
+                }
+            }
+
+            if (record != null)
+                records.add(record.build());
+        }
+        return records;
+    }
+
+    /**
+     * The state carried from one mapped window to the next.
+     */
+    private static final class Transcription {
+        boolean inHeader;
+        long converted;
+
+        void run(MappedByteBuffer src, MappedByteBuffer dst, int length) {
+            boolean copy = src != dst;
+            int i = 0;
+
+            while (i < length) {
+                if (inHeader) {
+                    byte b = src.get(i);
+                    if (copy)
+                        dst.put(i, b);
+                    inHeader = b != '\n';
+                    i++;
+                    continue;
+                }
+
+                if (i + 8 <= length) {
+                    long w = src.getLong(i);
+                    if (Utf8Strs.eqMask(w, (byte) '>') == 0) {
+                        long t = Utf8Strs.eqMask(w, (byte) 'T') | Utf8Strs.eqMask(w, (byte) 't');
+                        if (copy || t != 0)
+                            dst.putLong(i, w + (t >>> 7));
+                        converted += Long.bitCount(t);
+                        i += 8;
+                        continue;
+                    }
+                }
+
+                byte b = src.get(i);
+                if (b == '>') {
+                    inHeader = true;
+                    continue;
+                }
+
+                if (b == 'T' || b == 't') {
+                    dst.put(i, (byte) (b + 1));
+                    converted++;
+                } else if (copy) {
+                    dst.put(i, b);
+                }
+                i++;
+            }
+        }
+    }
+
+}
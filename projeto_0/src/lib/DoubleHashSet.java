@@ -0,0 +1,316 @@
+package lib;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A set of primitive doubles, for values that would otherwise be boxed in a
+ * {@code HashSet<Double>}. Each element takes one slot of a {@code long[]}
+ * table instead of a {@link Double} plus a hash map node.
+ *
+ * Elements are stored as {@link Double#doubleToLongBits(double)}, so the set
+ * agrees with {@link Double#equals(Object)}: every NaN is the same element, and
+ * 0.0 and -0.0 are different elements. The table uses open addressing with
+ * linear probing, is never more than three quarters full, and removes elements
+ * by shifting the rest of their probe run back, so it keeps no tombstones.
+ * The bits of +0.0 are all zero, which marks a free slot, so +0.0 is tracked
+ * by a separate flag.
+ *
+ * The table stops growing at 2^30 slots. From then on it fills past three
+ * quarters, and {@link #add(double)} fails once only one free slot is left,
+ * since probing needs a free slot to stop at.
+ */
+public final class DoubleHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final long FREE = 0L;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private boolean hasZero;
+
+    /**
+     * Creates an empty set.
+     */
+    public DoubleHashSet() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty set with room for a number of elements.
+     *
+     * @param expected The number of elements the set holds before it grows.
+     * @throws IllegalArgumentException If 'expected' is negative.
+     */
+    public DoubleHashSet(int expected) {
+        if (expected < 0)
+            throw new IllegalArgumentException("Expected size must not be negative.");
+        allocate(capacityFor(expected));
+    }
+
+    private static int capacityFor(int expected) {
+        long needed = Math.max(MIN_CAPACITY, (long) expected * 4 / 3 + 1);
+        if (needed > 1 << 30)
+            return 1 << 30;
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slot(long bits) {
+        long h = bits * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return The size of the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the set has no elements.
+     *
+     * @return true if the set is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds an element.
+     *
+     * @param value The element to add.
+     * @return false if the element was already in the set.
+     * @throws IllegalStateException If the table is at its largest size and
+     *                               only one free slot is left.
+     */
+    public boolean add(double value) {
+        long bits = Double.doubleToLongBits(value);
+        if (bits == FREE) {
+            if (hasZero)
+                return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+
+        int i = slot(bits);
+        for (long k; (k = table[i]) != FREE; i = (i + 1) & mask) {
+            if (k == bits)
+                return false;
+        }
+
+        if (size - (hasZero ? 1 : 0) == mask)
+            throw new IllegalStateException("Set is full.");
+        table[i] = bits;
+        if (++size > (table.length >> 2) * 3 && table.length < 1 << 30)
+            rehash(table.length * 2);
+        return true;
+    }
+
+    /**
+     * Adds every element of an array. The table is grown once, up front, for
+     * the case where every element is new.
+     *
+     * @param values The elements to add.
+     * @return The number of elements that were not in the set yet.
+     */
+    public int addAll(double[] values) {
+        return addAll(values, 0, values.length);
+    }
+
+    /**
+     * Adds the elements {@code values[from, to)}.
+     *
+     * @param values The array with the elements to add.
+     * @param from   The first element, inclusive.
+     * @param to     The last element, exclusive.
+     * @return The number of elements that were not in the set yet.
+     * @throws IndexOutOfBoundsException If the range is outside the array.
+     */
+    public int addAll(double[] values, int from, int to) {
+        Objects.checkFromToIndex(from, to, values.length);
+        int capacity = capacityFor((int) Math.min(Integer.MAX_VALUE, (long) size + (to - from)));
+        if (capacity > table.length)
+            rehash(capacity);
+
+        int added = 0;
+        for (int i = from; i < to; i++) {
+            if (add(values[i]))
+                added++;
+        }
+        return added;
+    }
+
+    /**
+     * Checks whether the set has an element.
+     *
+     * @param value The element to look for.
+     * @return true if the element is in the set.
+     */
+    public boolean contains(double value) {
+        long bits = Double.doubleToLongBits(value);
+        if (bits == FREE)
+            return hasZero;
+
+        for (int i = slot(bits);; i = (i + 1) & mask) {
+            long k = table[i];
+            if (k == bits)
+                return true;
+            if (k == FREE)
+                return false;
+        }
+    }
+
+    /**
+     * Removes an element.
+     *
+     * @param value The element to remove.
+     * @return false if the element was not in the set.
+     */
+    public boolean remove(double value) {
+        long bits = Double.doubleToLongBits(value);
+        if (bits == FREE) {
+            if (!hasZero)
+                return false;
+            hasZero = false;
+            size--;
+            return true;
+        }
+
+        int i = slot(bits);
+        for (long k; (k = table[i]) != bits; i = (i + 1) & mask) {
+            if (k == FREE)
+                return false;
+        }
+
+        shiftBack(i);
+        size--;
+        return true;
+    }
+
+    /**
+     * Empties the slot 'free' and moves back the later elements of its probe
+     * run that would no longer be found.
+     */
+    private void shiftBack(int free) {
+        for (int i = (free + 1) & mask;; i = (i + 1) & mask) {
+            long k = table[i];
+            if (k == FREE)
+                break;
+            int home = slot(k);
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                table[free] = k;
+                free = i;
+            }
+        }
+        table[free] = FREE;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        allocate(capacity);
+        for (long k : old) {
+            if (k != FREE) {
+                int i = slot(k);
+                while (table[i] != FREE)
+                    i = (i + 1) & mask;
+                table[i] = k;
+            }
+        }
+    }
+
+    /**
+     * Removes every element, keeping the table.
+     */
+    public void clear() {
+        Arrays.fill(table, FREE);
+        hasZero = false;
+        size = 0;
+    }
+
+    /**
+     * Calls 'action' with every element, in no particular order.
+     *
+     * @param action The action to run for each element.
+     */
+    public void forEach(DoubleConsumer action) {
+        Objects.requireNonNull(action);
+        if (hasZero)
+            action.accept(0.0);
+        for (long k : table) {
+            if (k != FREE)
+                action.accept(Double.longBitsToDouble(k));
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements that does not box them.
+     *
+     * @return An iterator that does not support {@link PrimitiveIterator#remove()}.
+     */
+    public PrimitiveIterator.OfDouble iterator() {
+        return new PrimitiveIterator.OfDouble() {
+            private boolean zero = hasZero;
+            private int next = advance(0);
+
+            private int advance(int from) {
+                while (from < table.length && table[from] == FREE)
+                    from++;
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return zero || next < table.length;
+            }
+
+            @Override
+            public double nextDouble() {
+                if (zero) {
+                    zero = false;
+                    return 0.0;
+                }
+                if (next >= table.length)
+                    throw new NoSuchElementException();
+                double value = Double.longBitsToDouble(table[next]);
+                next = advance(next + 1);
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Copies the elements into a new array.
+     *
+     * @return The elements, in no particular order.
+     */
+    public double[] toArray() {
+        double[] out = new double[size];
+        int o = 0;
+        if (hasZero)
+            out[o++] = 0.0;
+        for (long k : table) {
+            if (k != FREE)
+                out[o++] = Double.longBitsToDouble(k);
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+}
@@ -0,0 +1,695 @@
+package lib;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A growable list of primitive doubles, for values that would otherwise be
+ * boxed in an {@code ArrayList<Double>}. Each element takes 8 bytes instead of
+ * a reference plus a {@link Double} object.
+ *
+ * Values are compared as in {@link Double#equals(Object)}, so the list finds
+ * NaN and tells 0.0 from -0.0, just like the boxed list did.
+ *
+ * Without an index the list is a plain array: {@link #get} is O(1), and lookups
+ * and removals are O(n). With the index on, every operation except iteration
+ * is O(log n), amortized over the occasional compaction:
+ * <ul>
+ * <li>Each element stays in the slot it was appended to. A removed element
+ * leaves a dead slot behind instead of shifting the rest down, and a Fenwick
+ * tree over the slots turns positions into slots and back. Once there are more
+ * dead slots than elements, the live ones are moved down in one pass.</li>
+ * <li>The index is an AVL tree of the slots ordered by value and then by slot.
+ * Slots are in list order, so the first occurrence of a value is still the one
+ * found.</li>
+ * </ul>
+ * The index costs 9 bytes per element, plus 4 bytes per slot while some slots
+ * are dead.
+ */
+public final class DoubleList {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int NIL = -1;
+
+    private double[] values;
+    private int used;
+    private int size;
+
+    private boolean indexed;
+    private int root = NIL;
+    private int[] left;
+    private int[] right;
+    private byte[] height;
+
+    /**
+     * Dead slots and the Fenwick tree of live slots; both are null while no
+     * slot is dead.
+     */
+    private long[] dead;
+    private int[] live;
+    private int deadCount;
+
+    /**
+     * Creates an empty list.
+     */
+    public DoubleList() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty list with room for a number of elements.
+     *
+     * @param capacity The number of elements the list holds before it grows.
+     * @throws IllegalArgumentException If the capacity is negative.
+     */
+    public DoubleList(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity must not be negative.");
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Turns the index on or off. Turning it on sorts the elements once;
+     * turning it off moves the live elements over the dead slots.
+     *
+     * @param enabled true to keep an index.
+     * @return This list.
+     */
+    public DoubleList useIndex(boolean enabled) {
+        if (!enabled && indexed) {
+            compact();
+            indexed = false;
+            root = NIL;
+            left = right = null;
+            height = null;
+        } else if (enabled && !indexed) {
+            indexed = true;
+            left = new int[values.length];
+            right = new int[values.length];
+            height = new byte[values.length];
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = i;
+            }
+            sort(sorted, 0, size - 1);
+            root = build(sorted, 0, size);
+        }
+        return this;
+    }
+
+    /**
+     * Checks whether the index is on.
+     *
+     * @return true if lookups use the index.
+     */
+    public boolean hasIndex() {
+        return indexed;
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return The size of the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the list has no elements.
+     *
+     * @return true if the list is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the element at a position.
+     *
+     * @param index The position of the element.
+     * @return The element.
+     * @throws IndexOutOfBoundsException If the position is outside the list.
+     */
+    public double get(int index) {
+        Objects.checkIndex(index, size);
+        return values[slotOf(index)];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            int grown = Math.max(capacity, Math.max(MIN_CAPACITY, values.length + (values.length >> 1)));
+            values = Arrays.copyOf(values, grown);
+            if (indexed) {
+                left = Arrays.copyOf(left, grown);
+                right = Arrays.copyOf(right, grown);
+                height = Arrays.copyOf(height, grown);
+            }
+            if (dead != null) {
+                dead = Arrays.copyOf(dead, (grown + 63) >>> 6);
+                buildLive();
+            }
+        }
+    }
+
+    /**
+     * Appends an element.
+     *
+     * @param value The element to append.
+     */
+    public void add(double value) {
+        ensureCapacity(used + 1);
+        int slot = used++;
+        values[slot] = value;
+        if (live != null)
+            liveAdd(slot, 1);
+        if (indexed)
+            root = insert(root, slot);
+        size++;
+    }
+
+    /**
+     * Appends every element of an array.
+     *
+     * @param source The elements to append.
+     */
+    public void addAll(double[] source) {
+        addAll(source, 0, source.length);
+    }
+
+    /**
+     * Appends the elements {@code source[from, to)}.
+     *
+     * @param source The array with the elements to append.
+     * @param from   The first element, inclusive.
+     * @param to     The last element, exclusive.
+     * @throws IndexOutOfBoundsException If the range is outside the array.
+     */
+    public void addAll(double[] source, int from, int to) {
+        Objects.checkFromToIndex(from, to, source.length);
+        ensureCapacity(used + (to - from));
+        for (int i = from; i < to; i++) {
+            add(source[i]);
+        }
+    }
+
+    /**
+     * Replaces the element at a position.
+     *
+     * @param index The position of the element.
+     * @param value The new element.
+     * @return The element that was replaced.
+     * @throws IndexOutOfBoundsException If the position is outside the list.
+     */
+    public double set(int index, double value) {
+        Objects.checkIndex(index, size);
+        int slot = slotOf(index);
+        double old = values[slot];
+        if (indexed) {
+            root = delete(root, slot);
+            values[slot] = value;
+            root = insert(root, slot);
+        } else {
+            values[slot] = value;
+        }
+        return old;
+    }
+
+    /**
+     * Removes the element at a position. The elements after it move down one
+     * position.
+     *
+     * @param index The position of the element.
+     * @return The removed element.
+     * @throws IndexOutOfBoundsException If the position is outside the list.
+     */
+    public double removeAt(int index) {
+        Objects.checkIndex(index, size);
+        if (!indexed) {
+            double old = values[index];
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            used--;
+            return old;
+        }
+
+        int slot = slotOf(index);
+        double old = values[slot];
+        root = delete(root, slot);
+        if (dead == null) {
+            dead = new long[(values.length + 63) >>> 6];
+            buildLive();
+        }
+        dead[slot >>> 6] |= 1L << slot;
+        liveAdd(slot, -1);
+        deadCount++;
+        size--;
+
+        if (deadCount > size)
+            compact();
+        return old;
+    }
+
+    /**
+     * Removes every element. The index stays on if it was on.
+     */
+    public void clear() {
+        size = 0;
+        used = 0;
+        root = NIL;
+        dead = null;
+        live = null;
+        deadCount = 0;
+    }
+
+    /**
+     * Returns the position of the first occurrence of a value.
+     *
+     * @param value The value to look for.
+     * @return The position, or -1 if the value is not in the list.
+     */
+    public int indexOf(double value) {
+        if (indexed) {
+            int found = NIL;
+            for (int node = root; node != NIL;) {
+                if (Double.compare(values[node], value) >= 0) {
+                    found = node;
+                    node = left[node];
+                } else {
+                    node = right[node];
+                }
+            }
+            return found != NIL && Double.compare(values[found], value) == 0 ? positionOf(found) : -1;
+        }
+
+        long bits = Double.doubleToLongBits(value);
+        for (int i = 0; i < size; i++) {
+            if (Double.doubleToLongBits(values[i]) == bits)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the list has a value.
+     *
+     * @param value The value to look for.
+     * @return true if the value is in the list.
+     */
+    public boolean contains(double value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Removes the first occurrence of a value.
+     *
+     * @param value The value to remove.
+     * @return false if the value is not in the list, in which case nothing
+     *         changes.
+     */
+    public boolean remove(double value) {
+        int index = indexOf(value);
+        if (index < 0)
+            return false;
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Replaces the first occurrence of a value.
+     *
+     * @param oldValue The value to replace.
+     * @param newValue The new value.
+     * @return false if the old value is not in the list, in which case nothing
+     *         changes.
+     */
+    public boolean replace(double oldValue, double newValue) {
+        int index = indexOf(oldValue);
+        if (index < 0)
+            return false;
+        set(index, newValue);
+        return true;
+    }
+
+    /**
+     * Calls 'action' with every element, in order.
+     *
+     * @param action The action to run for each element.
+     */
+    public void forEach(DoubleConsumer action) {
+        Objects.requireNonNull(action);
+        for (int i = 0; i < used; i++) {
+            if (!isDead(i))
+                action.accept(values[i]);
+        }
+    }
+
+    /**
+     * Copies the elements into a new array.
+     *
+     * @return The elements, in order.
+     */
+    public double[] toArray() {
+        if (dead == null)
+            return Arrays.copyOf(values, size);
+
+        double[] out = new double[size];
+        int o = 0;
+        for (int i = 0; i < used; i++) {
+            if (!isDead(i))
+                out[o++] = values[i];
+        }
+        return out;
+    }
+
+    /**
+     * Returns a boxed view of the list for code that expects a
+     * {@link java.util.Collection} or a {@link List}. Changes through the view
+     * change this list, and lookups through it use the index when it is on.
+     * Null elements are not allowed.
+     *
+     * @return A live {@code List<Double>} view.
+     */
+    public List<Double> asList() {
+        return new Boxed();
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private boolean isDead(int slot) {
+        return dead != null && (dead[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * Returns the slot of the element at a position.
+     */
+    private int slotOf(int index) {
+        if (live == null)
+            return index;
+
+        int slot = 0;
+        for (int step = Integer.highestOneBit(live.length - 1); step > 0; step >>>= 1) {
+            int next = slot + step;
+            if (next < live.length && live[next] <= index) {
+                slot = next;
+                index -= live[next];
+            }
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the position of the element in a live slot.
+     */
+    private int positionOf(int slot) {
+        if (live == null)
+            return slot;
+
+        int count = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            count += live[i];
+        }
+        return count;
+    }
+
+    private void liveAdd(int slot, int delta) {
+        for (int i = slot + 1; i < live.length; i += i & -i) {
+            live[i] += delta;
+        }
+    }
+
+    /**
+     * Rebuilds the Fenwick tree of live slots from the dead slots in O(n).
+     */
+    private void buildLive() {
+        live = new int[values.length + 1];
+        for (int i = 1; i < live.length; i++) {
+            if (i <= used && !isDead(i - 1))
+                live[i]++;
+            int parent = i + (i & -i);
+            if (parent < live.length)
+                live[parent] += live[i];
+        }
+    }
+
+    /**
+     * Moves the live elements over the dead slots, keeping their order. Slots
+     * only move down and keep their order, so the index tree keeps its shape
+     * and only needs its links renumbered.
+     */
+    private void compact() {
+        if (dead == null)
+            return;
+
+        int[] moved = indexed ? new int[used] : null;
+        int w = 0;
+        for (int s = 0; s < used; s++) {
+            if (isDead(s))
+                continue;
+            values[w] = values[s];
+            if (indexed) {
+                moved[s] = w;
+                left[w] = left[s];
+                right[w] = right[s];
+                height[w] = height[s];
+            }
+            w++;
+        }
+
+        if (indexed) {
+            for (int s = 0; s < w; s++) {
+                if (left[s] != NIL)
+                    left[s] = moved[left[s]];
+                if (right[s] != NIL)
+                    right[s] = moved[right[s]];
+            }
+            if (root != NIL)
+                root = moved[root];
+        }
+        used = w;
+        dead = null;
+        live = null;
+        deadCount = 0;
+    }
+
+    /**
+     * Compares two slots by value and then by slot.
+     */
+    private int compare(int a, int b) {
+        int c = Double.compare(values[a], values[b]);
+        return c != 0 ? c : Integer.compare(a, b);
+    }
+
+    private int heightOf(int node) {
+        return node == NIL ? 0 : height[node];
+    }
+
+    private int insert(int node, int slot) {
+        if (node == NIL) {
+            left[slot] = NIL;
+            right[slot] = NIL;
+            height[slot] = 1;
+            return slot;
+        }
+        if (compare(slot, node) < 0)
+            left[node] = insert(left[node], slot);
+        else
+            right[node] = insert(right[node], slot);
+        return balance(node);
+    }
+
+    /**
+     * Deletes a slot that is in the tree. Its value must not have changed
+     * since it was inserted.
+     */
+    private int delete(int node, int slot) {
+        int c = compare(slot, node);
+        if (c < 0) {
+            left[node] = delete(left[node], slot);
+        } else if (c > 0) {
+            right[node] = delete(right[node], slot);
+        } else {
+            if (left[node] == NIL)
+                return right[node];
+            if (right[node] == NIL)
+                return left[node];
+            int successor = right[node];
+            while (left[successor] != NIL)
+                successor = left[successor];
+            right[successor] = deleteMin(right[node]);
+            left[successor] = left[node];
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private int deleteMin(int node) {
+        if (left[node] == NIL)
+            return right[node];
+        left[node] = deleteMin(left[node]);
+        return balance(node);
+    }
+
+    private int balance(int node) {
+        int l = left[node], r = right[node];
+        int diff = heightOf(l) - heightOf(r);
+        if (diff > 1) {
+            if (heightOf(left[l]) < heightOf(right[l]))
+                left[node] = rotateLeft(l);
+            return rotateRight(node);
+        }
+        if (diff < -1) {
+            if (heightOf(right[r]) < heightOf(left[r]))
+                right[node] = rotateRight(r);
+            return rotateLeft(node);
+        }
+        height[node] = (byte) (Math.max(heightOf(l), heightOf(r)) + 1);
+        return node;
+    }
+
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        height[node] = (byte) (Math.max(heightOf(left[node]), heightOf(right[node])) + 1);
+        height[pivot] = (byte) (Math.max(heightOf(left[pivot]), height[node]) + 1);
+        return pivot;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        height[node] = (byte) (Math.max(heightOf(left[node]), heightOf(right[node])) + 1);
+        height[pivot] = (byte) (Math.max(heightOf(right[pivot]), height[node]) + 1);
+        return pivot;
+    }
+
+    /**
+     * Builds a balanced tree from {@code sorted[lo, hi)}.
+     */
+    private int build(int[] sorted, int lo, int hi) {
+        if (lo >= hi)
+            return NIL;
+        int mid = (lo + hi) >>> 1;
+        int node = sorted[mid];
+        left[node] = build(sorted, lo, mid);
+        right[node] = build(sorted, mid + 1, hi);
+        height[node] = (byte) (Math.max(heightOf(left[node]), heightOf(right[node])) + 1);
+        return node;
+    }
+
+    /**
+     * Sorts {@code a[lo, hi]} with a quicksort on (value, slot).
+     */
+    private void sort(int[] a, int lo, int hi) {
+        while (hi - lo > 16) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(a[mid], a[lo]) < 0)
+                swap(a, mid, lo);
+            if (compare(a[hi], a[lo]) < 0)
+                swap(a, hi, lo);
+            if (compare(a[hi], a[mid]) < 0)
+                swap(a, hi, mid);
+            int pivot = a[mid];
+
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (compare(a[i], pivot) < 0)
+                    i++;
+                while (compare(a[j], pivot) > 0)
+                    j--;
+                if (i <= j)
+                    swap(a, i++, j--);
+            }
+
+            if (j - lo < hi - i) {
+                sort(a, lo, j);
+                lo = i;
+            } else {
+                sort(a, i, hi);
+                hi = j;
+            }
+        }
+
+        for (int i = lo + 1; i <= hi; i++) {
+            int p = a[i];
+            int k = i - 1;
+            while (k >= lo && compare(a[k], p) > 0) {
+                a[k + 1] = a[k];
+                k--;
+            }
+            a[k + 1] = p;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    /**
+     * The boxed view returned by {@link #asList()}.
+     */
+    private final class Boxed extends AbstractList<Double> implements RandomAccess {
+
+        @Override
+        public Double get(int index) {
+            return DoubleList.this.get(index);
+        }
+
+        @Override
+        public Double set(int index, Double element) {
+            return DoubleList.this.set(index, element);
+        }
+
+        @Override
+        public void add(int index, Double element) {
+            Objects.requireNonNull(element);
+            if (index != size) {
+                Objects.checkIndex(index, size);
+                throw new UnsupportedOperationException("Elements can only be appended.");
+            }
+            DoubleList.this.add(element);
+        }
+
+        @Override
+        public Double remove(int index) {
+            return removeAt(index);
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            return o instanceof Double ? DoubleList.this.indexOf((Double) o) : -1;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return o instanceof Double && DoubleList.this.remove((Double) o);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            DoubleList.this.clear();
+        }
+    }
+
+}
@@ -0,0 +1,706 @@
+package lib;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * A {@link DoubleList} that survives restarts. Every change is appended to a
+ * write-ahead log before the call returns, and opening the same directory again
+ * rebuilds the list.
+ *
+ * The log is a memory-mapped file of binary records: a length, an operation
+ * code, the operands and a CRC-32C of the rest. Records are written straight
+ * into the mapping, so a record costs a few stores and a checksum, with no
+ * system call and no garbage. Writing into the mapping already protects the
+ * record from a crash of the process; forcing it to the disk, which is what
+ * protects it from a crash of the machine, is batched: a change forces the log
+ * once a number of records or a time interval has passed since the last force,
+ * whichever comes first (a group commit), and so do {@link #sync()} and
+ * {@link #close()}. There is no timer, so the tail of a list that stops
+ * changing stays unforced until the next change, sync or close.
+ *
+ * When the log grows past a limit, the whole list is written to a snapshot file
+ * and a new, empty log is started. Opening the directory loads the snapshot and
+ * replays only the log written after it. A record that is cut short or fails
+ * its checksum ends the replay; it and anything after it were never forced and
+ * are dropped.
+ *
+ * Like {@link DoubleList}, this class is not thread-safe.
+ *
+ * <pre>{@code
+ * try (DurableDoubleList notas = DurableDoubleList.builder(Path.of("notas"))
+ *         .useIndex(true)
+ *         .open()) {
+ *     notas.add(7.5);
+ * }
+ * }</pre>
+ */
+public final class DurableDoubleList implements Closeable {
+
+    private static final int SNAPSHOT_MAGIC = 0x444C5331; // "DLS1"
+    private static final String SNAPSHOT = "snapshot";
+    private static final String SNAPSHOT_TMP = "snapshot.tmp";
+    private static final String LOG_PREFIX = "wal-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final byte ADD = 1;
+    private static final byte SET = 2;
+    private static final byte REMOVE = 3;
+    private static final byte CLEAR = 4;
+
+    /**
+     * Size of the operation code plus the largest operands (SET).
+     */
+    private static final int MAX_BODY = 1 + 4 + 8;
+    private static final int MAX_RECORD = 4 + MAX_BODY + 4;
+
+    /**
+     * Size of each memory-mapped window of the log. A zero length marks the end
+     * of the records, so the file grows in steps of this size.
+     */
+    static final int REGION = 1 << 23;
+
+    private static final int IO_BUFFER = 1 << 16;
+
+    private final Path dir;
+    private final DoubleList list;
+    private final int syncEvery;
+    private final long syncIntervalNanos;
+    private final long snapshotAfter;
+
+    private final byte[] scratch = new byte[MAX_RECORD];
+    private final ByteBuffer record = ByteBuffer.wrap(scratch);
+    private final CRC32C crc = new CRC32C();
+
+    private long generation;
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private int syncedTo;
+    private int unsynced;
+    private long lastSync;
+    private boolean closed;
+
+    private DurableDoubleList(Builder b) {
+        this.dir = b.dir;
+        this.list = new DoubleList();
+        this.syncEvery = b.syncEvery;
+        this.syncIntervalNanos = b.syncIntervalNanos;
+        this.snapshotAfter = b.snapshotAfter;
+    }
+
+    /**
+     * Opens the list stored in a directory with the default settings, creating
+     * the directory if needed.
+     *
+     * @param dir The directory of the snapshot and the log.
+     * @return The recovered list.
+     * @throws IOException If the files cannot be read or the snapshot is
+     *                     corrupt.
+     */
+    public static DurableDoubleList open(Path dir) throws IOException {
+        return builder(dir).open();
+    }
+
+    /**
+     * Creates a builder with no sorted index, a group commit every 4096 records
+     * or 10 milliseconds, and a snapshot every 64 MiB of log.
+     *
+     * @param dir The directory of the snapshot and the log.
+     * @return A new builder.
+     */
+    public static Builder builder(Path dir) {
+        return new Builder(Objects.requireNonNull(dir));
+    }
+
+    private void recover(boolean useIndex) throws IOException {
+        Files.createDirectories(dir);
+        Files.deleteIfExists(dir.resolve(SNAPSHOT_TMP));
+
+        Path snapshot = dir.resolve(SNAPSHOT);
+        generation = Files.exists(snapshot) ? readSnapshot(snapshot) : 0;
+        deleteOldLogs();
+
+        Path log = logFile(generation);
+        channel = FileChannel.open(log, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long end = replay();
+        if (end < channel.size())
+            channel.truncate(end);
+
+        list.useIndex(useIndex);
+        map(end);
+        lastSync = System.nanoTime();
+    }
+
+    private Path logFile(long gen) {
+        return dir.resolve(LOG_PREFIX + gen + LOG_SUFFIX);
+    }
+
+    /**
+     * Deletes the logs of older generations, which are left behind when the
+     * program stops, or a file cannot be deleted, right after a snapshot.
+     */
+    private void deleteOldLogs() throws IOException {
+        String current = logFile(generation).getFileName().toString();
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(dir, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path log : logs) {
+                if (!log.getFileName().toString().equals(current))
+                    Files.delete(log);
+            }
+        }
+    }
+
+    /**
+     * Loads the snapshot into the list.
+     *
+     * @return The generation of the log that follows the snapshot.
+     */
+    private long readSnapshot(Path snapshot) throws IOException {
+        try (FileChannel in = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(IO_BUFFER);
+            crc.reset();
+
+            buf.limit(16);
+            readFully(in, buf);
+            int magic = buf.getInt(0);
+            long gen = buf.getLong(4);
+            int count = buf.getInt(12);
+            if (magic != SNAPSHOT_MAGIC || gen < 0 || count < 0)
+                throw new IOException("Not a snapshot: " + snapshot);
+            crc.update(buf.array(), 0, 16);
+
+            double[] chunk = new double[IO_BUFFER / Double.BYTES];
+            for (int left = count; left > 0;) {
+                int n = Math.min(left, chunk.length);
+                buf.clear().limit(n * Double.BYTES);
+                readFully(in, buf);
+                crc.update(buf.array(), 0, n * Double.BYTES);
+                buf.flip();
+                buf.asDoubleBuffer().get(chunk, 0, n);
+                list.addAll(chunk, 0, n);
+                left -= n;
+            }
+
+            buf.clear().limit(4);
+            readFully(in, buf);
+            if (buf.getInt(0) != (int) crc.getValue())
+                throw new IOException("Snapshot checksum does not match: " + snapshot);
+            return gen;
+        }
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (in.read(buf) < 0)
+                throw new EOFException("Snapshot is truncated.");
+        }
+    }
+
+    /**
+     * Applies the valid records of the log to the list.
+     *
+     * @return The offset just past the last valid record.
+     */
+    private long replay() throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(IO_BUFFER);
+        long end = 0;
+        long read = 0;
+        boolean eof = false;
+
+        while (true) {
+            while (!eof && buf.hasRemaining()) {
+                int n = channel.read(buf, read);
+                if (n < 0)
+                    eof = true;
+                else
+                    read += n;
+            }
+            buf.flip();
+
+            while (buf.remaining() >= 4) {
+                int start = buf.position();
+                int length = buf.getInt(start);
+                if (length < 1 || length > MAX_BODY)
+                    return end;
+                if (buf.remaining() < 4 + length + 4)
+                    break;
+
+                crc.reset();
+                crc.update(buf.array(), start, 4 + length);
+                if (buf.getInt(start + 4 + length) != (int) crc.getValue())
+                    return end;
+                if (!apply(buf, start + 4, length))
+                    throw new IOException("Log record at offset " + end + " does not fit the list.");
+
+                buf.position(start + 4 + length + 4);
+                end += 4 + length + 4;
+            }
+
+            if (eof)
+                return end;
+            buf.compact();
+        }
+    }
+
+    private boolean apply(ByteBuffer buf, int at, int length) {
+        byte op = buf.get(at);
+        switch (op) {
+        case ADD:
+            if (length != 1 + 8)
+                return false;
+            list.add(buf.getDouble(at + 1));
+            return true;
+        case SET: {
+            int index = buf.getInt(at + 1);
+            if (length != 1 + 4 + 8 || index < 0 || index >= list.size())
+                return false;
+            list.set(index, buf.getDouble(at + 5));
+            return true;
+        }
+        case REMOVE: {
+            int index = buf.getInt(at + 1);
+            if (length != 1 + 4 || index < 0 || index >= list.size())
+                return false;
+            list.removeAt(index);
+            return true;
+        }
+        case CLEAR:
+            if (length != 1)
+                return false;
+            list.clear();
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private void map(long position) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, position, REGION);
+        regionStart = position;
+        syncedTo = 0;
+    }
+
+    /**
+     * Returns the directory the list is stored in.
+     *
+     * @return The directory.
+     */
+    public Path directory() {
+        return dir;
+    }
+
+    /**
+     * Returns the size of the log written since the last snapshot.
+     *
+     * @return The size in bytes.
+     */
+    public long logSize() {
+        return regionStart + region.position();
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return The size of the list.
+     */
+    public int size() {
+        return list.size();
+    }
+
+    /**
+     * Checks whether the list has no elements.
+     *
+     * @return true if the list is empty.
+     */
+    public boolean isEmpty() {
+        return list.isEmpty();
+    }
+
+    /**
+     * Returns the element at a position.
+     *
+     * @param index The position of the element.
+     * @return The element.
+     * @throws IndexOutOfBoundsException If the position is outside the list.
+     */
+    public double get(int index) {
+        return list.get(index);
+    }
+
+    /**
+     * Returns the position of the first occurrence of a value.
+     *
+     * @param value The value to look for.
+     * @return The position, or -1 if the value is not in the list.
+     */
+    public int indexOf(double value) {
+        return list.indexOf(value);
+    }
+
+    /**
+     * Checks whether the list has a value.
+     *
+     * @param value The value to look for.
+     * @return true if the value is in the list.
+     */
+    public boolean contains(double value) {
+        return list.contains(value);
+    }
+
+    /**
+     * Appends an element.
+     *
+     * @param value The element to append.
+     * @throws UncheckedIOException If the log cannot be written.
+     */
+    public void add(double value) {
+        checkOpen();
+        list.add(value);
+        begin(ADD, 1 + 8).putDouble(value);
+        commit();
+    }
+
+    /**
+     * Replaces the element at a position.
+     *
+     * @param index The position of the element.
+     * @param value The new element.
+     * @return The element that was replaced.
+     * @throws IndexOutOfBoundsException If the position is outside the list.
+     * @throws UncheckedIOException      If the log cannot be written.
+     */
+    public double set(int index, double value) {
+        checkOpen();
+        double old = list.set(index, value);
+        begin(SET, 1 + 4 + 8).putInt(index).putDouble(value);
+        commit();
+        return old;
+    }
+
+    /**
+     * Removes the element at a position. The elements after it move down one
+     * position.
+     *
+     * @param index The position of the element.
+     * @return The removed element.
+     * @throws IndexOutOfBoundsException If the position is outside the list.
+     * @throws UncheckedIOException      If the log cannot be written.
+     */
+    public double removeAt(int index) {
+        checkOpen();
+        double old = list.removeAt(index);
+        begin(REMOVE, 1 + 4).putInt(index);
+        commit();
+        return old;
+    }
+
+    /**
+     * Removes the first occurrence of a value.
+     *
+     * @param value The value to remove.
+     * @return false if the value is not in the list, in which case nothing
+     *         changes.
+     * @throws UncheckedIOException If the log cannot be written.
+     */
+    public boolean remove(double value) {
+        int index = list.indexOf(value);
+        if (index < 0)
+            return false;
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Replaces the first occurrence of a value.
+     *
+     * @param oldValue The value to replace.
+     * @param newValue The new value.
+     * @return false if the old value is not in the list, in which case nothing
+     *         changes.
+     * @throws UncheckedIOException If the log cannot be written.
+     */
+    public boolean replace(double oldValue, double newValue) {
+        int index = list.indexOf(oldValue);
+        if (index < 0)
+            return false;
+        set(index, newValue);
+        return true;
+    }
+
+    /**
+     * Removes every element.
+     *
+     * @throws UncheckedIOException If the log cannot be written.
+     */
+    public void clear() {
+        checkOpen();
+        list.clear();
+        begin(CLEAR, 1);
+        commit();
+    }
+
+    /**
+     * Calls 'action' with every element, in order.
+     *
+     * @param action The action to run for each element.
+     */
+    public void forEach(DoubleConsumer action) {
+        list.forEach(action);
+    }
+
+    /**
+     * Copies the elements into a new array.
+     *
+     * @return The elements, in order.
+     */
+    public double[] toArray() {
+        return list.toArray();
+    }
+
+    @Override
+    public String toString() {
+        return list.toString();
+    }
+
+    private void checkOpen() {
+        if (closed)
+            throw new IllegalStateException("The list is closed.");
+    }
+
+    /**
+     * Starts a record in the scratch buffer.
+     */
+    private ByteBuffer begin(byte op, int length) {
+        return record.clear().putInt(length).put(op);
+    }
+
+    /**
+     * Checksums the record in the scratch buffer, copies it into the mapping
+     * and runs the group commit and snapshot policies.
+     */
+    private void commit() {
+        int n = record.position();
+        crc.reset();
+        crc.update(scratch, 0, n);
+        record.putInt((int) crc.getValue());
+        n += 4;
+
+        try {
+            if (region.remaining() < n) {
+                forceRegion();
+                map(regionStart + region.position());
+            }
+            region.put(scratch, 0, n);
+
+            if (++unsynced >= syncEvery || System.nanoTime() - lastSync >= syncIntervalNanos)
+                sync();
+            if (logSize() >= snapshotAfter)
+                snapshot();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void forceRegion() {
+        int end = region.position();
+        if (end > syncedTo) {
+            region.force(syncedTo, end - syncedTo);
+            syncedTo = end;
+        }
+    }
+
+    /**
+     * Forces every record written so far to the disk.
+     *
+     * @throws IOException If the log cannot be forced.
+     */
+    public void sync() throws IOException {
+        checkOpen();
+        try {
+            forceRegion();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        unsynced = 0;
+        lastSync = System.nanoTime();
+    }
+
+    /**
+     * Writes the whole list to a new snapshot and starts an empty log. The
+     * snapshot is written to a temporary file and renamed over the old one, so a
+     * crash leaves either the old snapshot and log or the new ones. The
+     * directory is forced after the rename and after creating the new log, so
+     * the old log is only deleted once both are on the disk.
+     *
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public void snapshot() throws IOException {
+        checkOpen();
+        long next = generation + 1;
+        Path tmp = dir.resolve(SNAPSHOT_TMP);
+
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.allocate(IO_BUFFER);
+            crc.reset();
+            buf.putInt(SNAPSHOT_MAGIC).putLong(next).putInt(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                if (buf.remaining() < Double.BYTES)
+                    writeChecksummed(out, buf);
+                buf.putDouble(list.get(i));
+            }
+            writeChecksummed(out, buf);
+            buf.putInt((int) crc.getValue());
+            buf.flip();
+            while (buf.hasRemaining())
+                out.write(buf);
+            out.force(true);
+        }
+        Files.move(tmp, dir.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory();
+
+        Path old = logFile(generation);
+        channel.close();
+        generation = next;
+        channel = FileChannel.open(logFile(generation), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map(0);
+        unsynced = 0;
+        lastSync = System.nanoTime();
+        forceDirectory();
+
+        try {
+            Files.deleteIfExists(old);
+        } catch (IOException e) {
+            // Still mapped on some systems; the next open deletes it.
+        }
+    }
+
+    /**
+     * Forces the entries of the directory, so a rename or a new file in it
+     * survives a crash of the machine.
+     */
+    private void forceDirectory() throws IOException {
+        try (FileChannel d = FileChannel.open(dir, StandardOpenOption.READ)) {
+            d.force(true);
+        }
+    }
+
+    private void writeChecksummed(FileChannel out, ByteBuffer buf) throws IOException {
+        buf.flip();
+        crc.update(buf.array(), 0, buf.limit());
+        while (buf.hasRemaining())
+            out.write(buf);
+        buf.clear();
+    }
+
+    /**
+     * Forces the log to the disk and closes it. Closing twice does nothing.
+     *
+     * @throws IOException If the log cannot be forced or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        sync();
+        closed = true;
+        channel.close();
+    }
+
+    /**
+     * Builds a {@link DurableDoubleList}.
+     */
+    public static final class Builder {
+        private final Path dir;
+        private boolean useIndex;
+        private int syncEvery = 4096;
+        private long syncIntervalNanos = 10_000_000;
+        private long snapshotAfter = 64L << 20;
+
+        private Builder(Path dir) {
+            this.dir = dir;
+        }
+
+        /**
+         * Turns the sorted index of the underlying {@link DoubleList} on or off.
+         *
+         * @param enabled true to keep a sorted index.
+         * @return This builder.
+         */
+        public Builder useIndex(boolean enabled) {
+            this.useIndex = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the number of records after which the log is forced to the disk.
+         *
+         * @param records The number of records, at least 1. 1 forces every
+         *                record.
+         * @return This builder.
+         */
+        public Builder syncEvery(int records) {
+            if (records < 1)
+                throw new IllegalArgumentException("syncEvery must be at least 1.");
+            this.syncEvery = records;
+            return this;
+        }
+
+        /**
+         * Sets the time after which the next record forces the log to the disk,
+         * however few records it holds.
+         *
+         * @param millis The interval in milliseconds, at least 0.
+         * @return This builder.
+         */
+        public Builder syncIntervalMillis(long millis) {
+            if (millis < 0)
+                throw new IllegalArgumentException("syncIntervalMillis must not be negative.");
+            this.syncIntervalNanos = millis * 1_000_000;
+            return this;
+        }
+
+        /**
+         * Sets the size of log after which a snapshot is taken.
+         *
+         * @param bytes The size in bytes, at least 1.
+         * @return This builder.
+         */
+        public Builder snapshotAfter(long bytes) {
+            if (bytes < 1)
+                throw new IllegalArgumentException("snapshotAfter must be at least 1.");
+            this.snapshotAfter = bytes;
+            return this;
+        }
+
+        /**
+         * Opens the directory and recovers the list from its snapshot and log.
+         *
+         * @return The recovered list.
+         * @throws IOException If the files cannot be read or the snapshot is
+         *                     corrupt.
+         */
+        public DurableDoubleList open() throws IOException {
+            DurableDoubleList store = new DurableDoubleList(this);
+            store.recover(useIndex);
+            return store;
+        }
+    }
+
+}
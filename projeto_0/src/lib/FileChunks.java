@@ -0,0 +1,127 @@
+package lib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Helpers for the classes that process a newline-delimited file in chunks of a
+ * fixed size, each one memory-mapped and handled by its own parallel task.
+ *
+ * A chunk either owns the lines that start inside it, as in
+ * {@link #forEachLine}, or is cut right after a separator, as in
+ * {@link #bounds}, so that no line or word crosses two chunks.
+ */
+final class FileChunks {
+
+    /**
+     * Size of the buffer {@link #bounds} reads the file through.
+     */
+    static final int BUFFER = 1 << 16;
+
+    /**
+     * Receives one line of a chunk.
+     */
+    @FunctionalInterface
+    interface LineVisitor {
+        /**
+         * @param index The index of the line within the chunk, from 0.
+         * @param buf   The mapped bytes.
+         * @param from  The first byte of the line.
+         * @param to    The '\n' that ends the line, or the end of the mapped
+         *              bytes if it was not found there.
+         */
+        void line(long index, ByteBuffer buf, int from, int to);
+    }
+
+    private FileChunks() {
+    }
+
+    /**
+     * Splits a file right after the first separator that follows every multiple
+     * of 'chunk'. A chunk with no separator after it is merged into the next one.
+     *
+     * @param channel     The file.
+     * @param size        The size of the file.
+     * @param chunk       The nominal size of a chunk.
+     * @param isSeparator Tells whether a byte ends a line or a word.
+     * @return The bounds, starting at 0 and ending at 'size'; chunk c is
+     *         {@code [bounds[c], bounds[c + 1])}.
+     * @throws IOException If the file cannot be read.
+     */
+    static long[] bounds(FileChannel channel, long size, int chunk, IntPredicate isSeparator) throws IOException {
+        long[] bounds = new long[(int) (size / chunk) + 2];
+        int count = 1;
+        ByteBuffer buf = ByteBuffer.allocate(BUFFER);
+
+        for (long nominal = chunk; nominal < size; nominal += chunk) {
+            long start = Math.max(nominal, bounds[count - 1]);
+            long bound = size;
+
+            scan: for (long pos = start; pos < size; pos += buf.limit()) {
+                buf.clear();
+                channel.read(buf, pos);
+                buf.flip();
+                for (int i = 0; i < buf.limit(); i++) {
+                    if (isSeparator.test(buf.get(i))) {
+                        bound = pos + i + 1;
+                        break scan;
+                    }
+                }
+            }
+
+            if (bound > bounds[count - 1] && bound < size)
+                bounds[count++] = bound;
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Calls 'visitor' with every line that starts in
+     * {@code [start, start + chunk)}, in order. A line starts at offset 0 or
+     * right after a '\n', so the byte before the chunk is mapped too, to tell
+     * whether the chunk starts with a whole line or in the middle of one. The
+     * last line may continue past the chunk, so 'extra' more bytes are mapped
+     * for the visitor to read; a line longer than that is cut at the end of the
+     * mapping.
+     *
+     * @param channel The file.
+     * @param size    The size of the file.
+     * @param start   The first byte of the chunk.
+     * @param chunk   The size of the chunk.
+     * @param extra   How many bytes past the chunk the last line may be read.
+     * @param visitor Receives the lines.
+     * @return The number of lines visited.
+     * @throws IOException If the chunk cannot be mapped.
+     */
+    static long forEachLine(FileChannel channel, long size, long start, int chunk, int extra, LineVisitor visitor)
+            throws IOException {
+        long mapStart = start == 0 ? 0 : start - 1;
+        long mapEnd = Math.min(size, start + chunk + extra);
+        ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        int end = (int) (Math.min(size, start + chunk) - mapStart);
+        int limit = buf.limit();
+
+        int p = 0;
+        if (start > 0) {
+            while (p < end && buf.get(p) != '\n')
+                p++;
+            p++;
+        }
+
+        long lines = 0;
+        while (p < end) {
+            int q = p;
+            while (q < limit && buf.get(q) != '\n')
+                q++;
+
+            visitor.line(lines++, buf, p, q);
+            p = q + 1;
+        }
+        return lines;
+    }
+
+}
@@ -13,21 +13,26 @@ public class GamesCodeWars {
      * @param p2 The choice of Player 2 (scissors, paper, or rock).
      * @return The result of the game: "Player 1 won!" if Player 1 wins, "Player 2
      *         won!" if Player 2 wins,
-     *         or "Draw!" if it's a tie.
+     *         or "Draw!" if it's a tie. Unknown moves also give "Draw!".
      */
     public static String rps(String p1, String p2) {
-        if ((p1.equals("scissors") && p2.equals("paper")) ||
-                (p1.equals("paper") && p2.equals("rock")) ||
-                (p1.equals("rock") && p2.equals("scissors"))) {
-            return "Player 1 won!";
-        } else if ((p2.equals("scissors") && p1.equals("paper")) ||
-                (p2.equals("paper") && p1.equals("rock")) ||
-                (p2.equals("rock") && p1.equals("scissors"))) {
-            return "Player 2 won!";
-        } else {
-            return "Draw!";
-        }
+        Move m1 = Move.parse(p1);
+        Move m2 = Move.parse(p2);
+        if (m1 == null || m2 == null)
+            return Move.Outcome.DRAW.message();
+        return rps(m1, m2).message();
+    }
 
+    /**
+     * Plays the Rock-Paper-Scissors game between two parsed moves.
+     *
+     * @param p1 The move of Player 1.
+     * @param p2 The move of Player 2.
+     * @return The result of the game.
+     * @see Tournament
+     */
+    public static Move.Outcome rps(Move p1, Move p2) {
+        return p1.against(p2);
     }
 
     /**
@@ -0,0 +1,311 @@
+package lib;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the highest scoring word of a text with the rule of
+ * {@link StrsCodeWars#high(String)}: every character scores
+ * {@code c - 'a' + 1}, and when several words have the highest score the first
+ * one wins. A word only wins with a score above zero.
+ *
+ * The text is scanned once, scoring each word in place and remembering only the
+ * offsets of the best word so far, so no array of words is created. In a
+ * {@link CharSequence} words are separated by ' ', as in
+ * {@link StrsCodeWars#high(String)}. Text read from a {@link Reader} or a file
+ * is also split at line breaks. Files are read as UTF-8 through memory-mapped
+ * chunks.
+ */
+public final class HighScoringWord {
+
+    /**
+     * Approximate number of chars (or bytes, for files) each parallel task
+     * scans.
+     */
+    static final int CHUNK = 1 << 24;
+
+    static final int BUFFER = 1 << 16;
+
+    private static final HighScoringWord NONE = new HighScoringWord("", -1, 0);
+
+    private final String word;
+    private final long start;
+    private final long score;
+
+    private HighScoringWord(String word, long start, long score) {
+        this.word = word;
+        this.start = start;
+        this.score = score;
+    }
+
+    /**
+     * Returns the winning word.
+     *
+     * @return The word, or an empty string if no word scores above zero.
+     */
+    public String word() {
+        return word;
+    }
+
+    /**
+     * Returns where the winning word starts, in chars for text and in bytes for
+     * files.
+     *
+     * @return The offset of the word, or -1 if no word scores above zero.
+     */
+    public long start() {
+        return start;
+    }
+
+    /**
+     * Returns the score of the winning word.
+     *
+     * @return The score, or 0 if no word scores above zero.
+     */
+    public long score() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return word;
+    }
+
+    /**
+     * Finds the highest scoring word of a text.
+     *
+     * @param text The words, separated by spaces.
+     * @return The winning word.
+     */
+    public static HighScoringWord find(CharSequence text) {
+        return result(text, scan(text, 0, text.length()));
+    }
+
+    /**
+     * Finds the highest scoring word of a text, splitting it in chunks that are
+     * scanned in parallel. Each chunk scans the words that start inside it, and
+     * the chunk winners are combined in order, so ties still go to the first
+     * word.
+     *
+     * @param text The words, separated by spaces.
+     * @return The winning word.
+     */
+    public static HighScoringWord findParallel(CharSequence text) {
+        int n = text.length();
+        int chunks = (n + CHUNK - 1) / CHUNK;
+
+        Best best = IntStream.range(0, chunks).parallel()
+                .mapToObj(c -> scan(text, c * CHUNK, (int) Math.min(n, (c + 1L) * CHUNK)))
+                .collect(Best::new, Best::merge, Best::merge);
+        return result(text, best);
+    }
+
+    /**
+     * Scores the words that start in {@code [from, to)}. A word starts at offset
+     * 0 or right after a ' ', and the last one may continue past 'to'.
+     */
+    private static Best scan(CharSequence text, int from, int to) {
+        int n = text.length();
+        Best best = new Best();
+
+        int i = from;
+        if (from > 0 && text.charAt(from - 1) != ' ') {
+            while (i < to && text.charAt(i) != ' ')
+                i++;
+        }
+
+        while (i < to) {
+            int wordStart = i;
+            long score = 0;
+            char c;
+            while (i < n && (c = text.charAt(i)) != ' ') {
+                score += c - 'a' + 1;
+                i++;
+            }
+            best.offer(wordStart, i, score);
+            i++;
+        }
+        return best;
+    }
+
+    private static HighScoringWord result(CharSequence text, Best best) {
+        if (best.start < 0)
+            return NONE;
+        String word = text.subSequence((int) best.start, (int) best.end).toString();
+        return new HighScoringWord(word, best.start, best.score);
+    }
+
+    /**
+     * Finds the highest scoring word of the text read from a Reader. Only the
+     * current word and the best word so far are kept in memory.
+     *
+     * @param in The source of the words, separated by spaces or line breaks.
+     *           It is not closed.
+     * @return The winning word.
+     * @throws IOException If reading fails.
+     */
+    public static HighScoringWord find(Reader in) throws IOException {
+        char[] buf = new char[BUFFER];
+        StringBuilder current = new StringBuilder();
+        String bestWord = "";
+        long bestStart = -1;
+        long bestScore = 0;
+        long wordStart = 0;
+        long score = 0;
+        long pos = 0;
+
+        for (int n = in.read(buf); n >= 0; n = in.read(buf)) {
+            for (int i = 0; i < n; i++, pos++) {
+                char c = buf[i];
+                if (c == ' ' || c == '\n' || c == '\r') {
+                    if (score > bestScore) {
+                        bestWord = current.toString();
+                        bestStart = wordStart;
+                        bestScore = score;
+                    }
+                    current.setLength(0);
+                    score = 0;
+                    wordStart = pos + 1;
+                } else {
+                    current.append(c);
+                    score += c - 'a' + 1;
+                }
+            }
+        }
+
+        if (score > bestScore)
+            return new HighScoringWord(current.toString(), wordStart, score);
+        return bestStart < 0 ? NONE : new HighScoringWord(bestWord, bestStart, bestScore);
+    }
+
+    /**
+     * Finds the highest scoring word of a UTF-8 file.
+     *
+     * @param file The file with words separated by spaces or line breaks.
+     * @return The winning word. Its start is a byte offset.
+     * @throws IOException If the file cannot be read.
+     */
+    public static HighScoringWord find(Path file) throws IOException {
+        return find(file, false);
+    }
+
+    /**
+     * Finds the highest scoring word of a UTF-8 file, splitting it between
+     * words into chunks that are scanned in parallel. The chunk winners are
+     * combined in order, so ties still go to the first word.
+     *
+     * @param file The file with words separated by spaces or line breaks.
+     * @return The winning word. Its start is a byte offset.
+     * @throws IOException If the file cannot be read.
+     */
+    public static HighScoringWord findParallel(Path file) throws IOException {
+        return find(file, true);
+    }
+
+    private static HighScoringWord find(Path file, boolean parallel) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = FileChunks.bounds(channel, size, CHUNK, HighScoringWord::isSeparator);
+
+            IntStream indexes = IntStream.range(0, bounds.length - 1);
+            if (parallel)
+                indexes = indexes.parallel();
+
+            Best best = indexes.mapToObj(c -> {
+                try {
+                    return scan(channel, bounds[c], bounds[c + 1]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).collect(Best::new, Best::merge, Best::merge);
+
+            if (best.start < 0)
+                return NONE;
+            int length = (int) (best.end - best.start);
+            ByteBuffer word = channel.map(FileChannel.MapMode.READ_ONLY, best.start, length);
+            return new HighScoringWord(Utf8Decoder.toString(word, 0, length), best.start, best.score);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static boolean isSeparator(int b) {
+        return b == ' ' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * Scores the words of {@code [from, to)}, which starts and ends between
+     * words. Multi-byte sequences are decoded so every char scores as it would
+     * in a {@link String}; malformed bytes score as U+FFFD, one
+     * for each maximal ill-formed subpart.
+     */
+    private static Best scan(FileChannel channel, long from, long to) throws IOException {
+        int length = (int) (to - from);
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        Best best = new Best();
+        long score = 0;
+        int wordStart = 0;
+        int i = 0;
+
+        while (i < length) {
+            int b = buf.get(i);
+            if (b >= 0) {
+                if (isSeparator(b)) {
+                    best.offer(from + wordStart, from + i, score);
+                    score = 0;
+                    wordStart = i + 1;
+                } else {
+                    score += b - 'a' + 1;
+                }
+                i++;
+                continue;
+            }
+
+            int decoded = Utf8Decoder.decode(buf, i, length);
+            int cp = Utf8Decoder.codePoint(decoded);
+            if (cp >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                score += Character.highSurrogate(cp) - 'a' + 1;
+                score += Character.lowSurrogate(cp) - 'a' + 1;
+            } else {
+                score += cp - 'a' + 1;
+            }
+            i += Utf8Decoder.length(decoded);
+        }
+
+        best.offer(from + wordStart, to, score);
+        return best;
+    }
+
+    /**
+     * The best word of a scanned range, kept as offsets.
+     */
+    private static final class Best {
+        long start = -1;
+        long end;
+        long score;
+
+        void offer(long start, long end, long score) {
+            if (score > this.score) {
+                this.start = start;
+                this.end = end;
+                this.score = score;
+            }
+        }
+
+        /**
+         * Combines the winner of a later range into this one. Only a strictly
+         * higher score replaces the current winner, so the first word wins ties.
+         */
+        void merge(Best later) {
+            offer(later.start, later.end, later.score);
+        }
+    }
+
+}
@@ -0,0 +1,578 @@
+package lib;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An arithmetic expression over two int variables, {@code a} and {@code b},
+ * such as {@code (a*a + 3*b) % 7}. It supports int literals, {@code + - * / %},
+ * unary minus and parentheses, with the precedence and the wrapping int
+ * arithmetic of Java; dividing by zero throws {@link ArithmeticException}.
+ *
+ * Parsing turns the expression into postfix code for a stack machine, one
+ * operation per literal, variable and operator. It can be run in two ways.
+ * {@link #evaluate} interprets the code with a switch per operation.
+ * {@link #compile} translates it into the bytecode of a hidden class that
+ * implements a functional interface, so the JIT sees the same code as a
+ * hand-written lambda with that body and can inline it into the caller.
+ * Compiling takes a class definition, so it pays off for formulas that are run
+ * many times.
+ *
+ * Subexpressions made only of literals are folded when the expression is
+ * parsed, except for divisions by zero, which are left to fail when run.
+ * Nothing recurses over the length of the expression, so long formulas do not
+ * overflow the thread's stack; only parentheses nest, up to
+ * {@value #MAX_NESTING} levels.
+ */
+public final class IntExpression {
+
+    /**
+     * Deepest nesting of parentheses the parser accepts.
+     */
+    static final int MAX_NESTING = 256;
+
+    private static final byte PUSH = 0;
+    private static final byte LOAD_A = 1;
+    private static final byte LOAD_B = 2;
+    private static final byte NEG = 3;
+    private static final byte ADD = 4;
+    private static final byte SUB = 5;
+    private static final byte MUL = 6;
+    private static final byte DIV = 7;
+    private static final byte REM = 8;
+
+    private final String source;
+    private final byte[] ops;
+    private final int[] args;
+    private final int maxStack;
+
+    private IntExpression(String source, byte[] ops, int[] args, int maxStack) {
+        this.source = source;
+        this.ops = ops;
+        this.args = args;
+        this.maxStack = maxStack;
+    }
+
+    /**
+     * Parses an expression.
+     *
+     * @param source The expression.
+     * @return The parsed expression.
+     * @throws IllegalArgumentException If the expression is not valid or
+     *                                  nests parentheses more than
+     *                                  {@value #MAX_NESTING} deep; the message
+     *                                  tells where.
+     */
+    public static IntExpression parse(String source) {
+        Parser parser = new Parser(Objects.requireNonNull(source));
+        parser.expression();
+        parser.skipSpaces();
+        if (parser.pos < source.length())
+            throw parser.error("Unexpected '" + source.charAt(parser.pos) + "'");
+        return parser.finish();
+    }
+
+    /**
+     * Evaluates the expression by interpreting its postfix code.
+     *
+     * @param a The value of {@code a}.
+     * @param b The value of {@code b}.
+     * @return The value of the expression.
+     * @throws ArithmeticException If the expression divides by zero.
+     */
+    public int evaluate(int a, int b) {
+        int[] stack = new int[maxStack];
+        int top = 0;
+        for (int i = 0; i < ops.length; i++) {
+            switch (ops[i]) {
+            case PUSH:
+                stack[top++] = args[i];
+                break;
+            case LOAD_A:
+                stack[top++] = a;
+                break;
+            case LOAD_B:
+                stack[top++] = b;
+                break;
+            case NEG:
+                stack[top - 1] = -stack[top - 1];
+                break;
+            default:
+                top--;
+                stack[top - 1] = apply(ops[i], stack[top - 1], stack[top]);
+                break;
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Compiles the expression into an implementation of a functional interface
+     * whose method takes two ints and returns an int, like
+     * {@code OperacaoMatematica} or {@link java.util.function.IntBinaryOperator}.
+     * The first parameter is {@code a} and the second is {@code b}. The
+     * {@code toString()} of the result returns the expression.
+     *
+     * @param <T>   The type of the interface.
+     * @param iface The interface, which must be public.
+     * @return A new instance of a hidden class implementing the interface.
+     * @throws IllegalArgumentException If the interface is not public or does
+     *                                  not have exactly one abstract
+     *                                  {@code (int, int) -> int} method, or the
+     *                                  expression is too long to compile.
+     */
+    public <T> T compile(Class<T> iface) {
+        Method method = functionalMethod(iface);
+        byte[] bytes = new ClassWriter(iface, method.getName()).write(this);
+        try {
+            Class<?> type = MethodHandles.lookup().defineHiddenClass(bytes, true).lookupClass();
+            return iface.cast(type.getConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not define the compiled expression.", e);
+        }
+    }
+
+    private static Method functionalMethod(Class<?> iface) {
+        if (!iface.isInterface() || !Modifier.isPublic(iface.getModifiers()))
+            throw new IllegalArgumentException(iface.getName() + " is not a public interface.");
+
+        Method found = null;
+        for (Method m : iface.getMethods()) {
+            if (!Modifier.isAbstract(m.getModifiers()) || isObjectMethod(m))
+                continue;
+            if (found != null)
+                throw new IllegalArgumentException(iface.getName() + " has more than one abstract method.");
+            found = m;
+        }
+        if (found == null || found.getReturnType() != int.class || found.getParameterCount() != 2
+                || found.getParameterTypes()[0] != int.class || found.getParameterTypes()[1] != int.class)
+            throw new IllegalArgumentException(iface.getName() + " has no single abstract (int, int) -> int method.");
+        return found;
+    }
+
+    private static boolean isObjectMethod(Method m) {
+        try {
+            Object.class.getMethod(m.getName(), m.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the source of the expression.
+     *
+     * @return The string the expression was parsed from.
+     */
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private static int apply(byte op, int x, int y) {
+        switch (op) {
+        case ADD:
+            return x + y;
+        case SUB:
+            return x - y;
+        case MUL:
+            return x * y;
+        case DIV:
+            return x / y;
+        default:
+            return x % y;
+        }
+    }
+
+    /**
+     * A recursive descent parser for
+     * <pre>
+     * expression = term (('+' | '-') term)*
+     * term       = unary (('*' | '/' | '%') unary)*
+     * unary      = ('-' | '+')* primary
+     * primary    = number | 'a' | 'b' | '(' expression ')'
+     * </pre>
+     * that writes the postfix code while it reads. Only parentheses recurse, and
+     * at most {@link #MAX_NESTING} levels deep.
+     */
+    private static final class Parser {
+        private final String s;
+        private int pos;
+        private int nesting;
+        private byte[] ops = new byte[16];
+        private int[] args = new int[16];
+        private int size;
+
+        Parser(String s) {
+            this.s = s;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " of \"" + s + "\".");
+        }
+
+        void skipSpaces() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos)))
+                pos++;
+        }
+
+        private boolean accept(char c) {
+            skipSpaces();
+            if (pos < s.length() && s.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void emit(byte op, int arg) {
+            if (size == ops.length) {
+                ops = Arrays.copyOf(ops, size * 2);
+                args = Arrays.copyOf(args, size * 2);
+            }
+            ops[size] = op;
+            args[size++] = arg;
+        }
+
+        /**
+         * Writes a binary operator, or folds it when both operands are literals.
+         * An operand whose code ends in a PUSH is that single PUSH, since code
+         * with an operator in it ends with one.
+         */
+        private void operator(byte op) {
+            if (size >= 2 && ops[size - 1] == PUSH && ops[size - 2] == PUSH
+                    && !((op == DIV || op == REM) && args[size - 1] == 0)) {
+                size--;
+                args[size - 1] = apply(op, args[size - 1], args[size]);
+            } else {
+                emit(op, 0);
+            }
+        }
+
+        void expression() {
+            term();
+            while (true) {
+                if (accept('+')) {
+                    term();
+                    operator(ADD);
+                } else if (accept('-')) {
+                    term();
+                    operator(SUB);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void term() {
+            unary();
+            while (true) {
+                if (accept('*')) {
+                    unary();
+                    operator(MUL);
+                } else if (accept('/')) {
+                    unary();
+                    operator(DIV);
+                } else if (accept('%')) {
+                    unary();
+                    operator(REM);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void unary() {
+            boolean negate = false;
+            while (true) {
+                if (accept('-'))
+                    negate = !negate;
+                else if (!accept('+'))
+                    break;
+            }
+            primary();
+            if (negate) {
+                if (ops[size - 1] == PUSH)
+                    args[size - 1] = -args[size - 1];
+                else
+                    emit(NEG, 0);
+            }
+        }
+
+        private void primary() {
+            skipSpaces();
+            if (pos >= s.length())
+                throw error("Unexpected end");
+
+            char c = s.charAt(pos);
+            if (c == '(') {
+                if (nesting == MAX_NESTING)
+                    throw error("Too many nested parentheses");
+                pos++;
+                nesting++;
+                expression();
+                if (!accept(')'))
+                    throw error("Missing ')'");
+                nesting--;
+                return;
+            }
+            if (c == 'a' || c == 'b') {
+                pos++;
+                if (pos < s.length() && Character.isLetterOrDigit(s.charAt(pos)))
+                    throw error("Unknown name");
+                emit(c == 'a' ? LOAD_A : LOAD_B, 0);
+                return;
+            }
+            if (c >= '0' && c <= '9') {
+                long value = 0;
+                while (pos < s.length() && s.charAt(pos) >= '0' && s.charAt(pos) <= '9') {
+                    value = value * 10 + (s.charAt(pos++) - '0');
+                    if (value > Integer.MAX_VALUE)
+                        throw error("Number too large");
+                }
+                emit(PUSH, (int) value);
+                return;
+            }
+            throw error("Unexpected '" + c + "'");
+        }
+
+        IntExpression finish() {
+            int depth = 0, maxStack = 0;
+            for (int i = 0; i < size; i++) {
+                if (ops[i] <= LOAD_B)
+                    maxStack = Math.max(maxStack, ++depth);
+                else if (ops[i] != NEG)
+                    depth--;
+            }
+            return new IntExpression(s, Arrays.copyOf(ops, size), Arrays.copyOf(args, size), maxStack);
+        }
+    }
+
+    /**
+     * Writes the class file of a final class that implements the interface
+     * with the expression and returns the source from {@code toString()}. The
+     * bytecode has no branches, so it needs no stack map frames.
+     */
+    private static final class ClassWriter {
+        static final int ICONST_0 = 0x03;
+        static final int BIPUSH = 0x10;
+        static final int SIPUSH = 0x11;
+        static final int LDC = 0x12;
+        static final int LDC_W = 0x13;
+        static final int ILOAD_1 = 0x1b;
+        static final int ILOAD_2 = 0x1c;
+        static final int ALOAD_0 = 0x2a;
+        static final int IADD = 0x60;
+        static final int ISUB = 0x64;
+        static final int IMUL = 0x68;
+        static final int IDIV = 0x6c;
+        static final int IREM = 0x70;
+        static final int INEG = 0x74;
+        static final int IRETURN = 0xac;
+        static final int ARETURN = 0xb0;
+        static final int RETURN = 0xb1;
+        static final int INVOKESPECIAL = 0xb7;
+
+        private static final int UTF8 = 1;
+        private static final int INTEGER = 3;
+        private static final int CLASS = 7;
+        private static final int STRING = 8;
+        private static final int METHODREF = 10;
+        private static final int NAME_AND_TYPE = 12;
+
+        private static final int MAX_CODE = 65535;
+
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private final DataOutputStream poolOut = new DataOutputStream(pool);
+        private int poolCount = 1;
+        private final List<Integer> ints = new ArrayList<>();
+        private final List<Integer> intIndexes = new ArrayList<>();
+
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        private final int thisClass;
+        private final int objectClass;
+        private final int ifaceClass;
+        private final String methodName;
+
+        ClassWriter(Class<?> iface, String methodName) {
+            this.methodName = methodName;
+            thisClass = classEntry(IntExpression.class.getName().replace('.', '/') + "$Compiled");
+            objectClass = classEntry("java/lang/Object");
+            ifaceClass = classEntry(iface.getName().replace('.', '/'));
+        }
+
+        private int entry(int tag, int a, int b) {
+            try {
+                poolOut.writeByte(tag);
+                poolOut.writeShort(a);
+                if (b >= 0)
+                    poolOut.writeShort(b);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return poolCount++;
+        }
+
+        private int utf8(String value) {
+            try {
+                poolOut.writeByte(UTF8);
+                poolOut.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Expression is too long to compile.", e);
+            }
+            return poolCount++;
+        }
+
+        private int classEntry(String internalName) {
+            return entry(CLASS, utf8(internalName), -1);
+        }
+
+        private int intEntry(int value) {
+            int i = ints.indexOf(value);
+            if (i >= 0)
+                return intIndexes.get(i);
+            try {
+                poolOut.writeByte(INTEGER);
+                poolOut.writeInt(value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ints.add(value);
+            intIndexes.add(poolCount);
+            return poolCount++;
+        }
+
+        private void pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                code.write(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.write(BIPUSH);
+                code.write(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                code.write(SIPUSH);
+                code.write(value >> 8);
+                code.write(value);
+            } else {
+                int index = intEntry(value);
+                if (index < 256) {
+                    code.write(LDC);
+                    code.write(index);
+                } else {
+                    code.write(LDC_W);
+                    code.write(index >> 8);
+                    code.write(index);
+                }
+            }
+        }
+
+        private void emit(IntExpression expression) {
+            byte[] ops = expression.ops;
+            for (int i = 0; i < ops.length; i++) {
+                switch (ops[i]) {
+                case PUSH:
+                    pushInt(expression.args[i]);
+                    break;
+                case LOAD_A:
+                    code.write(ILOAD_1);
+                    break;
+                case LOAD_B:
+                    code.write(ILOAD_2);
+                    break;
+                case NEG:
+                    code.write(INEG);
+                    break;
+                case ADD:
+                    code.write(IADD);
+                    break;
+                case SUB:
+                    code.write(ISUB);
+                    break;
+                case MUL:
+                    code.write(IMUL);
+                    break;
+                case DIV:
+                    code.write(IDIV);
+                    break;
+                default:
+                    code.write(IREM);
+                    break;
+                }
+            }
+        }
+
+        byte[] write(IntExpression expression) {
+            emit(expression);
+            code.write(IRETURN);
+            if (code.size() > MAX_CODE)
+                throw new IllegalArgumentException("Expression is too long to compile.");
+            byte[] body = code.toByteArray();
+
+            int codeName = utf8("Code");
+            int init = utf8("<init>");
+            int voidDesc = utf8("()V");
+            int superInit = entry(METHODREF, objectClass, entry(NAME_AND_TYPE, init, voidDesc));
+            int apply = utf8(methodName);
+            int applyDesc = utf8("(II)I");
+            int toString = utf8("toString");
+            int toStringDesc = utf8("()Ljava/lang/String;");
+            int sourceString = entry(STRING, utf8(expression.source), -1);
+            if (poolCount > 0xffff)
+                throw new IllegalArgumentException("Expression is too long to compile.");
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(61);
+                out.writeShort(poolCount);
+                pool.writeTo(out);
+
+                out.writeShort(Modifier.PUBLIC | Modifier.FINAL | 0x0020); // ACC_SUPER
+                out.writeShort(thisClass);
+                out.writeShort(objectClass);
+                out.writeShort(1);
+                out.writeShort(ifaceClass);
+                out.writeShort(0);
+
+                out.writeShort(3);
+                method(out, init, voidDesc, codeName, 1, 1,
+                        new byte[] { ALOAD_0, (byte) INVOKESPECIAL, (byte) (superInit >> 8), (byte) superInit, (byte) RETURN });
+                method(out, apply, applyDesc, codeName, expression.maxStack, 3, body);
+                method(out, toString, toStringDesc, codeName, 1, 1,
+                        new byte[] { LDC_W, (byte) (sourceString >> 8), (byte) sourceString, (byte) ARETURN });
+
+                out.writeShort(0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+
+        private static void method(DataOutputStream out, int name, int descriptor, int codeName, int maxStack,
+                int maxLocals, byte[] body) throws IOException {
+            out.writeShort(Modifier.PUBLIC);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(2 + 2 + 4 + body.length + 2 + 2);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(body.length);
+            out.write(body);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+    }
+
+}
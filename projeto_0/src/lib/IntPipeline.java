@@ -0,0 +1,486 @@
+package lib;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * The map/filter/sorted/distinct steps of an {@code IntStream} pipeline, run on
+ * a plain {@code int[]} so that no element is ever boxed.
+ *
+ * The pipeline owns a copy of its input. Each step runs as soon as it is
+ * called, rewrites that array in place and returns the same pipeline, so a
+ * chain of steps needs no more than the array and, for sorting, one buffer of
+ * the same size. {@link #sorted()} is an LSD radix sort over the four bytes of
+ * each value that skips the bytes all values share, and {@link #distinct()}
+ * keeps the first occurrence of each value, using a bitset when the values fall
+ * in a range not much wider than their number and an {@link IntHashSet}
+ * otherwise.
+ *
+ * After {@link #parallel()}, steps split the array into chunks of
+ * {@link #PARALLEL_CHUNK} elements and work on them in parallel, still keeping
+ * the encounter order: filtered chunks are compacted in order, the radix sort
+ * counts and scatters every chunk in its own slots of each bucket, and dense
+ * distinct values are kept by the lowest position they occur at.
+ *
+ * <pre>{@code
+ * int[] pares = IntPipeline.of(numeros).filter(x -> x % 2 == 0).sorted().toArray();
+ * }</pre>
+ */
+public final class IntPipeline {
+
+    /**
+     * Number of elements each task processes in parallel mode.
+     */
+    static final int PARALLEL_CHUNK = 1 << 16;
+
+    /**
+     * Below this size, {@link #sorted()} uses {@link Arrays#sort(int[])}.
+     */
+    static final int RADIX_THRESHOLD = 256;
+
+    /**
+     * A range of values up to this many times the number of elements is
+     * deduplicated with a bitset.
+     */
+    static final int DENSE_FACTOR = 32;
+
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private int[] values;
+    private int size;
+    private boolean parallel;
+
+    private IntPipeline(int[] values) {
+        this.values = values;
+        this.size = values.length;
+    }
+
+    /**
+     * Starts a pipeline over a copy of some values.
+     *
+     * @param values The values.
+     * @return A sequential pipeline.
+     */
+    public static IntPipeline of(int... values) {
+        return new IntPipeline(values.clone());
+    }
+
+    /**
+     * Starts a pipeline over the unboxed elements of a collection, for code
+     * that still holds its numbers in a {@code List<Integer>}.
+     *
+     * @param values The values, none of them null.
+     * @return A sequential pipeline.
+     * @throws NullPointerException If an element is null.
+     */
+    public static IntPipeline of(Collection<Integer> values) {
+        int[] copy = new int[values.size()];
+        int i = 0;
+        for (Integer v : values) {
+            copy[i++] = v;
+        }
+        return new IntPipeline(copy);
+    }
+
+    /**
+     * Makes the following steps run in parallel.
+     *
+     * @return This pipeline.
+     */
+    public IntPipeline parallel() {
+        this.parallel = true;
+        return this;
+    }
+
+    /**
+     * Makes the following steps run on the calling thread.
+     *
+     * @return This pipeline.
+     */
+    public IntPipeline sequential() {
+        this.parallel = false;
+        return this;
+    }
+
+    private boolean splits() {
+        return parallel && size > PARALLEL_CHUNK;
+    }
+
+    private int chunks() {
+        return (size + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+    }
+
+    private int chunkEnd(int c) {
+        return (int) Math.min(size, (long) (c + 1) * PARALLEL_CHUNK);
+    }
+
+    /**
+     * Replaces every value with the result of an operator. In parallel mode
+     * the operator is called from several threads.
+     *
+     * @param op The operator applied to each value.
+     * @return This pipeline.
+     */
+    public IntPipeline map(IntUnaryOperator op) {
+        Objects.requireNonNull(op);
+        int[] v = values;
+        if (splits()) {
+            IntStream.range(0, chunks()).parallel().forEach(c -> {
+                int to = chunkEnd(c);
+                for (int i = c * PARALLEL_CHUNK; i < to; i++)
+                    v[i] = op.applyAsInt(v[i]);
+            });
+        } else {
+            for (int i = 0; i < size; i++)
+                v[i] = op.applyAsInt(v[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Keeps the values that match a predicate, in their order. In parallel
+     * mode the predicate is called from several threads.
+     *
+     * @param predicate The test a value must pass to be kept.
+     * @return This pipeline.
+     */
+    public IntPipeline filter(IntPredicate predicate) {
+        Objects.requireNonNull(predicate);
+        int[] v = values;
+        if (!splits()) {
+            size = compact(v, 0, size, predicate);
+            return this;
+        }
+
+        int[] kept = new int[chunks()];
+        IntStream.range(0, kept.length).parallel().forEach(c -> {
+            int from = c * PARALLEL_CHUNK;
+            kept[c] = compact(v, from, chunkEnd(c), predicate) - from;
+        });
+        int end = kept[0];
+        for (int c = 1; c < kept.length; c++) {
+            System.arraycopy(v, c * PARALLEL_CHUNK, v, end, kept[c]);
+            end += kept[c];
+        }
+        size = end;
+        return this;
+    }
+
+    /**
+     * Moves the values of {@code v[from, to)} that pass the predicate to the
+     * start of the range, in order.
+     *
+     * @return The end of the kept values.
+     */
+    private static int compact(int[] v, int from, int to, IntPredicate predicate) {
+        int out = from;
+        for (int i = from; i < to; i++) {
+            int x = v[i];
+            if (predicate.test(x))
+                v[out++] = x;
+        }
+        return out;
+    }
+
+    /**
+     * Sorts the values in ascending order.
+     *
+     * @return This pipeline.
+     */
+    public IntPipeline sorted() {
+        if (size < RADIX_THRESHOLD) {
+            Arrays.sort(values, 0, size);
+            return this;
+        }
+
+        int[] from = values;
+        int[] to = new int[size];
+        for (int shift = 0; shift < 32; shift += 8) {
+            if (splits() ? radixPassParallel(from, to, shift) : radixPass(from, to, shift)) {
+                int[] t = from;
+                from = to;
+                to = t;
+            }
+        }
+        values = from;
+        return this;
+    }
+
+    /**
+     * Sorts the values in descending order, like
+     * {@code sorted(Comparator.reverseOrder())}.
+     *
+     * @return This pipeline.
+     */
+    public IntPipeline sortedDescending() {
+        sorted();
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+        return this;
+    }
+
+    /**
+     * Returns the radix digit of a value. The sign bit is flipped so that
+     * negative values sort before positive ones.
+     */
+    private static int digit(int value, int shift) {
+        return ((value ^ Integer.MIN_VALUE) >>> shift) & 0xff;
+    }
+
+    /**
+     * Scatters {@code from} into {@code to} by one byte, stably.
+     *
+     * @return false if every value has the same byte, in which case nothing
+     *         was moved.
+     */
+    private boolean radixPass(int[] from, int[] to, int shift) {
+        int[] count = new int[257];
+        for (int i = 0; i < size; i++)
+            count[digit(from[i], shift) + 1]++;
+        if (count[digit(from[0], shift) + 1] == size)
+            return false;
+
+        for (int d = 0; d < 256; d++)
+            count[d + 1] += count[d];
+        for (int i = 0; i < size; i++) {
+            int x = from[i];
+            to[count[digit(x, shift)]++] = x;
+        }
+        return true;
+    }
+
+    /**
+     * Does a {@link #radixPass} with one histogram per chunk. Every chunk gets
+     * its own slots in each bucket, placed after the slots of the chunks
+     * before it, so the pass stays stable.
+     */
+    private boolean radixPassParallel(int[] from, int[] to, int shift) {
+        int chunks = chunks();
+        int[][] count = new int[chunks][256];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] h = count[c];
+            int end = chunkEnd(c);
+            for (int i = c * PARALLEL_CHUNK; i < end; i++)
+                h[digit(from[i], shift)]++;
+        });
+
+        int first = digit(from[0], shift);
+        int same = 0;
+        for (int[] h : count)
+            same += h[first];
+        if (same == size)
+            return false;
+
+        int offset = 0;
+        for (int d = 0; d < 256; d++) {
+            for (int[] h : count) {
+                int n = h[d];
+                h[d] = offset;
+                offset += n;
+            }
+        }
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int[] h = count[c];
+            int end = chunkEnd(c);
+            for (int i = c * PARALLEL_CHUNK; i < end; i++) {
+                int x = from[i];
+                to[h[digit(x, shift)]++] = x;
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Removes repeated values, keeping the first occurrence of each one in its
+     * place.
+     *
+     * @return This pipeline.
+     */
+    public IntPipeline distinct() {
+        if (size < 2)
+            return this;
+
+        int min = values[0], max = values[0];
+        for (int i = 1; i < size; i++) {
+            min = Math.min(min, values[i]);
+            max = Math.max(max, values[i]);
+        }
+        long range = (long) max - min + 1;
+
+        if (range <= (long) DENSE_FACTOR * size) {
+            if (splits() && range <= size)
+                distinctParallel(min, (int) range);
+            else
+                distinctBitset(min, range);
+        } else {
+            IntHashSet seen = new IntHashSet();
+            int out = 0;
+            for (int i = 0; i < size; i++) {
+                int x = values[i];
+                if (seen.add(x))
+                    values[out++] = x;
+            }
+            size = out;
+        }
+        return this;
+    }
+
+    private void distinctBitset(int min, long range) {
+        long[] seen = new long[(int) ((range + 63) >>> 6)];
+        int out = 0;
+        for (int i = 0; i < size; i++) {
+            int x = values[i];
+            int bit = x - min;
+            long mask = 1L << bit;
+            long word = seen[bit >>> 6];
+            if ((word & mask) == 0) {
+                seen[bit >>> 6] = word | mask;
+                values[out++] = x;
+            }
+        }
+        size = out;
+    }
+
+    /**
+     * Records the lowest position of each value in parallel, then keeps the
+     * values found at their lowest position.
+     */
+    private void distinctParallel(int min, int range) {
+        int[] v = values;
+        int[] firstAt = new int[range];
+        Arrays.fill(firstAt, Integer.MAX_VALUE);
+        IntStream.range(0, chunks()).parallel().forEach(c -> {
+            int end = chunkEnd(c);
+            for (int i = c * PARALLEL_CHUNK; i < end; i++) {
+                int slot = v[i] - min;
+                int seen = (int) INTS.getVolatile(firstAt, slot);
+                while (i < seen && !INTS.compareAndSet(firstAt, slot, seen, i))
+                    seen = (int) INTS.getVolatile(firstAt, slot);
+            }
+        });
+
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++)
+            positions[i] = i;
+        IntPipeline keep = new IntPipeline(positions).parallel().filter(i -> firstAt[v[i] - min] == i);
+        for (int i = 0; i < keep.size; i++)
+            v[i] = v[keep.values[i]];
+        size = keep.size;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return The size of the pipeline.
+     */
+    public int count() {
+        return size;
+    }
+
+    /**
+     * Copies the values into a new array.
+     *
+     * @return The values, in order.
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Boxes the values into a new list, as {@code collect(Collectors.toList())}
+     * does.
+     *
+     * @return A new modifiable list of the values.
+     */
+    public List<Integer> toList() {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            list.add(values[i]);
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    /**
+     * Removes repeated strings, keeping the first occurrence of each one in its
+     * place, like {@code stream().distinct()}. On a machine with several cores
+     * the hash codes of a large list are computed up front, in parallel. Each
+     * hash code is stored next to its position in an open-addressing table
+     * that grows with the number of distinct strings, so {@link String#equals}
+     * only runs for strings whose full hash codes match.
+     *
+     * @param strings The strings, which may include null.
+     * @return A new list with the first occurrence of each string.
+     */
+    public static List<String> distinct(List<String> strings) {
+        String[] s = strings.toArray(new String[0]);
+        int n = s.length;
+        int[] hashes = null;
+        if (n > PARALLEL_CHUNK && Runtime.getRuntime().availableProcessors() > 1) {
+            int[] h = new int[n];
+            IntStream.range(0, n).parallel().forEach(i -> h[i] = Objects.hashCode(s[i]));
+            hashes = h;
+        }
+
+        // Pairs of (position + 1, hash); a zero position marks a free slot.
+        int[] table = new int[2 * 16];
+        List<String> out = new ArrayList<>();
+
+        for (int i = 0; i < n; i++) {
+            int h = hashes != null ? hashes[i] : Objects.hashCode(s[i]);
+            int mask = (table.length >> 1) - 1;
+            int slot = slot(h, mask);
+            while (true) {
+                int at = table[2 * slot];
+                if (at == 0) {
+                    table[2 * slot] = i + 1;
+                    table[2 * slot + 1] = h;
+                    out.add(s[i]);
+                    if (out.size() * 2 > mask)
+                        table = grow(table);
+                    break;
+                }
+                if (table[2 * slot + 1] == h && Objects.equals(s[at - 1], s[i]))
+                    break;
+                slot = (slot + 1) & mask;
+            }
+        }
+        return out;
+    }
+
+    private static int slot(int hash, int mask) {
+        int h = hash * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int[] grow(int[] table) {
+        int[] grown = new int[table.length * 2];
+        int mask = (grown.length >> 1) - 1;
+        for (int i = 0; i < table.length; i += 2) {
+            if (table[i] != 0) {
+                int slot = slot(table[i + 1], mask);
+                while (grown[2 * slot] != 0)
+                    slot = (slot + 1) & mask;
+                grown[2 * slot] = table[i];
+                grown[2 * slot + 1] = table[i + 1];
+            }
+        }
+        return grown;
+    }
+
+}
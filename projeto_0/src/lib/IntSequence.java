@@ -0,0 +1,257 @@
+package lib;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * A lazy, random-access sequence of integers.
+ *
+ * Elements are computed on demand by {@link #get(int)} and are only stored when
+ * the sequence is materialized, either into a caller-provided buffer with
+ * {@link #copyInto(int[], int)} or into a new array with {@link #toArray()} and
+ * {@link #toArrayParallel()}. Chained calls to {@link #map(IntUnaryOperator)}
+ * are fused into a single view over the original source.
+ */
+public abstract class IntSequence {
+
+    /**
+     * Number of elements each task materializes in {@link #toArrayParallel()}.
+     */
+    static final int PARALLEL_CHUNK = 1 << 16;
+
+    /**
+     * Returns the number of elements in the sequence.
+     *
+     * @return The size of the sequence.
+     */
+    public abstract int size();
+
+    /**
+     * Returns the element at the given position.
+     *
+     * @param index The position of the element, from 0 to {@code size() - 1}.
+     * @return The element at the given position.
+     * @throws IndexOutOfBoundsException If the index is outside the sequence.
+     */
+    public abstract int get(int index);
+
+    /**
+     * Creates the arithmetic progression {@code first, first + step, ...} with
+     * {@code size} elements.
+     *
+     * @param first The first element of the progression.
+     * @param step  The difference between consecutive elements.
+     * @param size  The number of elements in the progression.
+     * @return A lazy view of the progression.
+     * @throws IllegalArgumentException If 'size' is negative.
+     */
+    public static IntSequence arithmetic(int first, int step, int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative.");
+        }
+        return new Arithmetic(first, step, size);
+    }
+
+    /**
+     * Wraps an array as a sequence without copying it. Later changes to the array
+     * are visible through the sequence.
+     *
+     * @param arr The backing array.
+     * @return A view of the array.
+     * @throws NullPointerException If the array is null.
+     */
+    public static IntSequence of(int[] arr) {
+        return new ArrayView(Objects.requireNonNull(arr));
+    }
+
+    /**
+     * Returns a view where each element is transformed by the given operator. The
+     * operator is applied every time an element is read.
+     *
+     * @param op The operator applied to each element.
+     * @return A lazy view of the transformed sequence.
+     */
+    public IntSequence map(IntUnaryOperator op) {
+        return new Mapped(this, Objects.requireNonNull(op));
+    }
+
+    /**
+     * Copies the elements in {@code [from, to)} into the destination array.
+     *
+     * @param from   The first position to copy, inclusive.
+     * @param to     The last position to copy, exclusive.
+     * @param dest   The destination array.
+     * @param offset The position in 'dest' where the first element is written.
+     * @return The number of elements written.
+     * @throws IndexOutOfBoundsException If the range is outside the sequence or
+     *                                   does not fit in 'dest'.
+     */
+    public int copyInto(int from, int to, int[] dest, int offset) {
+        checkRange(from, to, dest, offset);
+        for (int i = from; i < to; i++) {
+            dest[offset++] = get(i);
+        }
+        return to - from;
+    }
+
+    /**
+     * Copies every element into the destination array.
+     *
+     * @param dest   The destination array.
+     * @param offset The position in 'dest' where the first element is written.
+     * @return The number of elements written.
+     * @throws IndexOutOfBoundsException If the sequence does not fit in 'dest'.
+     */
+    public int copyInto(int[] dest, int offset) {
+        return copyInto(0, size(), dest, offset);
+    }
+
+    /**
+     * Materializes the sequence into a new array.
+     *
+     * @return A new array containing every element of the sequence.
+     */
+    public int[] toArray() {
+        int[] result = new int[size()];
+        copyInto(result, 0);
+        return result;
+    }
+
+    /**
+     * Materializes the sequence into a new array, filling independent chunks of it
+     * in parallel.
+     *
+     * @return A new array containing every element of the sequence.
+     */
+    public int[] toArrayParallel() {
+        int n = size();
+        int[] result = new int[n];
+        int chunks = (n + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = c * PARALLEL_CHUNK;
+            int to = (int) Math.min(n, (long) from + PARALLEL_CHUNK);
+            copyInto(from, to, result, from);
+        });
+        return result;
+    }
+
+    /**
+     * Returns a stream over the elements of the sequence.
+     *
+     * @return A sequential {@link IntStream} of the elements.
+     */
+    public IntStream stream() {
+        return IntStream.range(0, size()).map(this::get);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    void checkRange(int from, int to, int[] dest, int offset) {
+        Objects.checkFromToIndex(from, to, size());
+        Objects.checkFromIndexSize(offset, to - from, dest.length);
+    }
+
+    private static final class Arithmetic extends IntSequence {
+        private final int first;
+        private final int step;
+        private final int size;
+
+        Arithmetic(int first, int step, int size) {
+            this.first = first;
+            this.step = step;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public int get(int index) {
+            Objects.checkIndex(index, size);
+            return first + step * index;
+        }
+
+        @Override
+        public int copyInto(int from, int to, int[] dest, int offset) {
+            checkRange(from, to, dest, offset);
+            int value = first + step * from;
+            for (int i = from; i < to; i++) {
+                dest[offset++] = value;
+                value += step;
+            }
+            return to - from;
+        }
+    }
+
+    private static final class ArrayView extends IntSequence {
+        private final int[] arr;
+
+        ArrayView(int[] arr) {
+            this.arr = arr;
+        }
+
+        @Override
+        public int size() {
+            return arr.length;
+        }
+
+        @Override
+        public int get(int index) {
+            return arr[index];
+        }
+
+        @Override
+        public int copyInto(int from, int to, int[] dest, int offset) {
+            checkRange(from, to, dest, offset);
+            System.arraycopy(arr, from, dest, offset, to - from);
+            return to - from;
+        }
+    }
+
+    private static final class Mapped extends IntSequence {
+        private final IntSequence source;
+        private final IntUnaryOperator op;
+
+        Mapped(IntSequence source, IntUnaryOperator op) {
+            this.source = source;
+            this.op = op;
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+
+        @Override
+        public int get(int index) {
+            return op.applyAsInt(source.get(index));
+        }
+
+        /**
+         * Fuses the new operator with the current one so the result stays a single
+         * view over the original source.
+         */
+        @Override
+        public IntSequence map(IntUnaryOperator next) {
+            return new Mapped(source, op.andThen(Objects.requireNonNull(next)));
+        }
+
+        @Override
+        public int copyInto(int from, int to, int[] dest, int offset) {
+            int written = source.copyInto(from, to, dest, offset);
+            for (int i = offset; i < offset + written; i++) {
+                dest[i] = op.applyAsInt(dest[i]);
+            }
+            return written;
+        }
+    }
+
+}
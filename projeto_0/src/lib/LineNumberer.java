@@ -0,0 +1,216 @@
+package lib;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Streaming version of {@link StrsCodeWars#number(java.util.List)}: prefixes
+ * every line with {@code "<lineNumber>: "} without holding the lines in memory.
+ *
+ * Lines end at '\n'. Line terminators are copied unchanged, so "\r\n" stays
+ * "\r\n" and a last line without a terminator stays without one. Line numbers
+ * are written digit by digit into the output buffer instead of going through
+ * {@link Integer#toString(int)}.
+ */
+public final class LineNumberer {
+
+    /**
+     * Approximate number of input bytes each parallel task numbers.
+     */
+    static final int CHUNK = 1 << 26;
+
+    static final int BUFFER = 1 << 16;
+
+    private LineNumberer() {
+    }
+
+    /**
+     * Numbers the lines read from 'in' and writes them to 'out'. Only two
+     * fixed-size buffers are used, whatever the size of the input.
+     *
+     * @param in  The source of the lines.
+     * @param out The destination of the numbered lines. It is not flushed or
+     *            closed.
+     * @return The number of lines written.
+     * @throws IOException If reading or writing fails.
+     */
+    public static long number(Reader in, Writer out) throws IOException {
+        char[] src = new char[BUFFER];
+        char[] dst = new char[BUFFER + 24];
+        boolean lineStart = true;
+        long lineNumber = 0;
+        int o = 0;
+
+        for (int n = in.read(src); n >= 0; n = in.read(src)) {
+            for (int i = 0; i < n; i++) {
+                if (lineStart) {
+                    o = writeNumber(++lineNumber, dst, o);
+                    lineStart = false;
+                }
+
+                char c = src[i];
+                dst[o++] = c;
+                lineStart = c == '\n';
+
+                if (o >= BUFFER) {
+                    out.write(dst, 0, o);
+                    o = 0;
+                }
+            }
+        }
+        out.write(dst, 0, o);
+        return lineNumber;
+    }
+
+    /**
+     * Writes {@code "<number>: "} into 'dst' at 'offset' and returns the position
+     * after it.
+     */
+    private static int writeNumber(long number, char[] dst, int offset) {
+        int end = offset + digits(number);
+        for (int i = end - 1; i >= offset; i--) {
+            dst[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        dst[end] = ':';
+        dst[end + 1] = ' ';
+        return end + 2;
+    }
+
+    private static int writeNumber(long number, ByteBuffer dst, int offset) {
+        int end = offset + digits(number);
+        for (int i = end - 1; i >= offset; i--) {
+            dst.put(i, (byte) ('0' + number % 10));
+            number /= 10;
+        }
+        dst.put(end, (byte) ':');
+        dst.put(end + 1, (byte) ' ');
+        return end + 2;
+    }
+
+    private static int digits(long n) {
+        int digits = 1;
+        for (long limit = 10; n >= limit && digits < 19; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Returns the total number of digits needed to write 1, 2, ..., n.
+     */
+    static long digitsUpTo(long n) {
+        long total = 0;
+        long low = 1;
+        for (int d = 1; low <= n; d++, low *= 10) {
+            long high = (low > Long.MAX_VALUE / 10) ? n : Math.min(n, low * 10 - 1);
+            total += (high - low + 1) * d;
+        }
+        return total;
+    }
+
+    /**
+     * Numbers the lines of a file and writes them to another file.
+     *
+     * The input is split on line boundaries into chunks. A first parallel pass
+     * counts the lines of each chunk, which gives every chunk its first line
+     * number and the exact place of its output. A second parallel pass writes
+     * each chunk through memory-mapped buffers.
+     *
+     * @param in  The file whose lines are numbered.
+     * @param out The file that receives the numbered lines. It is created or
+     *            truncated.
+     * @return The number of lines written.
+     * @throws IOException If either file cannot be read or written.
+     */
+    public static long number(Path in, Path out) throws IOException {
+        try (FileChannel src = FileChannel.open(in, StandardOpenOption.READ);
+                FileChannel dst = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = src.size();
+            long[] bounds = FileChunks.bounds(src, size, CHUNK, b -> b == '\n');
+            int chunks = bounds.length - 1;
+
+            long[] lines = new long[chunks];
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                lines[c] = countLines(src, bounds[c], bounds[c + 1], size);
+            });
+
+            long[] firstLine = new long[chunks + 1];
+            long[] outStart = new long[chunks + 1];
+            firstLine[0] = 1;
+            for (int c = 0; c < chunks; c++) {
+                long last = firstLine[c] + lines[c] - 1;
+                long prefixes = digitsUpTo(last) - digitsUpTo(firstLine[c] - 1) + 2 * lines[c];
+                firstLine[c + 1] = last + 1;
+                outStart[c + 1] = outStart[c] + (bounds[c + 1] - bounds[c]) + prefixes;
+            }
+
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                try {
+                    writeChunk(src, bounds[c], bounds[c + 1], dst, outStart[c], outStart[c + 1], firstLine[c]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return firstLine[chunks] - 1;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long countLines(FileChannel channel, long from, long to, long size) {
+        try {
+            int length = (int) (to - from);
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+            long lines = 0;
+            int i = 0;
+
+            for (; i + 8 <= length; i += 8) {
+                lines += Long.bitCount(Utf8Strs.eqMask(buf.getLong(i), (byte) '\n'));
+            }
+            for (; i < length; i++) {
+                if (buf.get(i) == '\n')
+                    lines++;
+            }
+
+            if (to == size && length > 0 && buf.get(length - 1) != '\n')
+                lines++;
+            return lines;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeChunk(FileChannel src, long from, long to, FileChannel dst, long outFrom, long outTo,
+            long lineNumber) throws IOException {
+        int length = (int) (to - from);
+        MappedByteBuffer in = src.map(FileChannel.MapMode.READ_ONLY, from, length);
+        MappedByteBuffer out = dst.map(FileChannel.MapMode.READ_WRITE, outFrom, outTo - outFrom);
+        int o = 0;
+        int i = 0;
+
+        while (i < length) {
+            o = writeNumber(lineNumber++, out, o);
+
+            int end = i;
+            while (end < length && in.get(end) != '\n')
+                end++;
+            if (end < length)
+                end++;
+
+            out.put(o, in, i, end - i);
+            o += end - i;
+            i = end;
+        }
+    }
+
+}
@@ -12,6 +12,12 @@ import java.util.List;
 /**
  * A utility class containing various mathematical operations on arrays and
  * numbers.
+ *
+ * Methods that return a new array also have an overload taking an output
+ * array and an offset. Those overloads write the result starting at
+ * {@code out[offset]}, return the number of elements written and never
+ * allocate. They throw {@link IndexOutOfBoundsException} when the result does
+ * not fit in the output array.
  */
 public class MathCodewars {
 
@@ -26,6 +32,25 @@ public class MathCodewars {
         if (arr == null || arr.length == 0)
             return new int[0];
 
+        int[] result = new int[2];
+        minMax(arr, result, 0);
+        return result;
+    }
+
+    /**
+     * Writes the minimum and maximum values of an integer array into 'out'.
+     *
+     * @param arr    The input integer array.
+     * @param out    The array that receives the minimum and the maximum.
+     * @param offset The position in 'out' where the minimum is written.
+     * @return The number of elements written: 2, or 0 if the input is null or
+     *         empty.
+     */
+    public static int minMax(int[] arr, int[] out, int offset) {
+        if (arr == null || arr.length == 0)
+            return 0;
+
+        Objects.checkFromIndexSize(offset, 2, out.length);
         int min = arr[0];
         int max = arr[0];
 
@@ -37,7 +62,9 @@ public class MathCodewars {
             }
 
         }
-        return new int[] { min, max };
+        out[offset] = min;
+        out[offset + 1] = max;
+        return 2;
     }
 
     /**
@@ -65,13 +92,40 @@ public class MathCodewars {
         if (input == null || input.length == 0)
             return new int[0];
 
-        int countPositives = (int) Arrays.stream(input)
-                .filter(num -> num > 0).count();
+        int[] result = new int[2];
+        countPositivesSumNegatives(input, result, 0);
+        return result;
+    }
 
-        int sumNegatives = (int) Arrays.stream(input)
-                .filter(num -> num < 0).sum();
+    /**
+     * Writes the count of positive values and the sum of negative values of an
+     * integer array into 'out'.
+     *
+     * @param input  The input integer array.
+     * @param out    The array that receives the count and the sum.
+     * @param offset The position in 'out' where the count is written.
+     * @return The number of elements written: 2, or 0 if the input is null or
+     *         empty.
+     */
+    public static int countPositivesSumNegatives(int[] input, int[] out, int offset) {
+        if (input == null || input.length == 0)
+            return 0;
+
+        Objects.checkFromIndexSize(offset, 2, out.length);
+        int countPositives = 0;
+        int sumNegatives = 0;
+
+        for (int num : input) {
+            if (num > 0) {
+                countPositives++;
+            } else {
+                sumNegatives += num;
+            }
 
-        return new int[] { countPositives, sumNegatives };
+        }
+        out[offset] = countPositives;
+        out[offset + 1] = sumNegatives;
+        return 2;
     }
 
     /**
@@ -160,11 +214,28 @@ public class MathCodewars {
      */
     public static int[] countBy(int x, int n) {
         int[] multiples = new int[n];
+        countBy(x, n, multiples, 0);
+        return multiples;
+    }
+
+    /**
+     * Writes the first 'n' multiples of 'x' into 'out'.
+     *
+     * @param x      The number whose multiples are generated.
+     * @param n      The number of multiples to generate.
+     * @param out    The array that receives the multiples.
+     * @param offset The position in 'out' where the first multiple is written.
+     * @return The number of elements written, which is 'n'.
+     */
+    public static int countBy(int x, int n, int[] out, int offset) {
+        Objects.checkFromIndexSize(offset, n, out.length);
+        int multiple = x;
 
         for (int i = 0; i < n; i++) {
-            multiples[i] = x * (i + 1);
+            out[offset + i] = multiple;
+            multiple += x;
         }
-        return multiples;
+        return n;
     }
 
     /**
@@ -175,7 +246,51 @@ public class MathCodewars {
      * @return A new integer array with each element multiplied by 2.
      */
     public static int[] map(int[] arr) {
-        return Arrays.stream(arr).map(x -> x * 2).toArray();
+        int[] doubled = new int[arr.length];
+        map(arr, doubled, 0);
+        return doubled;
+    }
+
+    /**
+     * Writes each element of the input array multiplied by 2 into 'out'. The
+     * output may be the input array itself.
+     *
+     * @param arr    The input integer array.
+     * @param out    The array that receives the doubled values.
+     * @param offset The position in 'out' where the first value is written.
+     * @return The number of elements written, which is the length of 'arr'.
+     */
+    public static int map(int[] arr, int[] out, int offset) {
+        Objects.checkFromIndexSize(offset, arr.length, out.length);
+
+        for (int i = 0; i < arr.length; i++) {
+            out[offset + i] = arr[i] * 2;
+        }
+        return arr.length;
+    }
+
+    /**
+     * Lazy version of {@link #countBy(int, int)}. The multiples are computed on
+     * demand instead of being stored in a new array.
+     *
+     * @param x The number whose multiples are generated.
+     * @param n The number of multiples to generate.
+     * @return A sequence view of the 'n' multiples of 'x'.
+     * @throws IllegalArgumentException If 'n' is negative.
+     */
+    public static IntSequence countBySequence(int x, int n) {
+        return IntSequence.arithmetic(x, x, n);
+    }
+
+    /**
+     * Lazy version of {@link #map(int[])}. The returned view reads the input array
+     * and doubles each element when it is accessed.
+     *
+     * @param arr The input integer array.
+     * @return A sequence view with each element multiplied by 2.
+     */
+    public static IntSequence mapSequence(int[] arr) {
+        return IntSequence.of(arr).map(x -> x * 2);
     }
 
     /**
@@ -280,6 +395,36 @@ public class MathCodewars {
         return array;
     }
 
+    /**
+     * Writes the digits of a long integer into 'out' in reverse order. As in
+     * {@link #digitize(long)}, a negative number ends with -1 for its sign.
+     *
+     * @param n      The input long integer.
+     * @param out    The array that receives the digits.
+     * @param offset The position in 'out' where the last digit is written.
+     * @return The number of elements written.
+     */
+    public static int digitize(long n, int[] out, int offset) {
+        int count = n < 0 ? 1 : 0;
+        for (long rest = n; ; rest /= 10) {
+            count++;
+            if (rest / 10 == 0)
+                break;
+        }
+        Objects.checkFromIndexSize(offset, count, out.length);
+
+        int i = offset;
+        long rest = n;
+        do {
+            out[i++] = (int) Math.abs(rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+
+        if (n < 0)
+            out[i] = -1;
+        return count;
+    }
+
     /**
      * Counts the number of true (non-null and true value) elements in a Boolean
      * array.
@@ -928,30 +1073,29 @@ public class MathCodewars {
      */
     public static double[] tribonacci(double[] s, int n) {
         double[] awnser = new double[n];
-        if (n <= 3) {
-            for (int i = 0; i < n; i++) {
-                awnser[i] = s[i];
-            }
-            return awnser;
-        }
-
-        int indexN1 = 0,
-                indexN2 = 1,
-                indexN3 = 2;
+        tribonacci(s, n, awnser, 0);
+        return awnser;
+    }
 
-        awnser[indexN1] = s[indexN1];
-        awnser[indexN2] = s[indexN2];
-        awnser[indexN3] = s[indexN3];
+    /**
+     * Writes a tribonacci sequence of length n into 'out'.
+     *
+     * @param s      An array of seed values for the tribonacci sequence.
+     * @param n      The length of the tribonacci sequence to generate.
+     * @param out    The array that receives the sequence.
+     * @param offset The position in 'out' where the first value is written.
+     * @return The number of elements written, which is 'n'.
+     */
+    public static int tribonacci(double[] s, int n, double[] out, int offset) {
+        Objects.checkFromIndexSize(offset, n, out.length);
+        for (int i = 0; i < Math.min(n, 3); i++) {
+            out[offset + i] = s[i];
+        }
 
-        double currentValue = 0.0;
-        for (int i = 3; i < n; i++) {
-            currentValue = awnser[indexN1] + awnser[indexN2] + awnser[indexN3];
-            awnser[i] = currentValue;
-            indexN1++;
-            indexN2++;
-            indexN3++;
+        for (int i = offset + 3; i < offset + n; i++) {
+            out[i] = out[i - 3] + out[i - 2] + out[i - 1];
         }
-        return awnser;
+        return n;
     }
 
     /**
@@ -961,31 +1105,37 @@ public class MathCodewars {
      * @return An array containing human years, cat years, and dog years.
      */
     public static int[] humanYearsCatYearsDogYears(final int humanYears) {
+        int[] years = new int[3];
+        humanYearsCatYearsDogYears(humanYears, years, 0);
+        return years;
+    }
+
+    /**
+     * Writes the human years, cat years and dog years into 'out'.
+     *
+     * @param humanYears The number of human years.
+     * @param out        The array that receives the three values.
+     * @param offset     The position in 'out' where the human years are written.
+     * @return The number of elements written, which is 3.
+     */
+    public static int humanYearsCatYearsDogYears(final int humanYears, int[] out, int offset) {
+        Objects.checkFromIndexSize(offset, 3, out.length);
         int catY = 0,
                 dogY = 0;
 
         // Check if humanYears is less than or equal to 1
         if (humanYears <= 1) {
             // Calculate cat and dog years for 1 human year or less
-            return (humanYears == 1) ? new int[] { humanYears, 15, 15 } : new int[] { humanYears, 0, 0 };
+            catY = dogY = (humanYears == 1) ? 15 : 0;
         } else {
-            // Calculate cat and dog years for more than 1 human year
-            for (int i = 1; i < humanYears + 1; i++) {
-                if (i == 1) {
-                    catY += 15;
-                    dogY += 15;
-                } else if (i == 2) {
-                    catY += 9;
-                    dogY += 9;
-                } else {
-                    catY += 4;
-                    dogY += 5;
-                }
-
-            }
-
+            // 15 for the first year, 9 for the second, then 4 (cat) and 5 (dog)
+            catY = 24 + 4 * (humanYears - 2);
+            dogY = 24 + 5 * (humanYears - 2);
         }
-        return new int[] { humanYears, catY, dogY };
+        out[offset] = humanYears;
+        out[offset + 1] = catY;
+        out[offset + 2] = dogY;
+        return 3;
     }
 
 }
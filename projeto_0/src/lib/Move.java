@@ -0,0 +1,94 @@
+package lib;
+
+/**
+ * A move of Rock-Paper-Scissors, as played by {@link GamesCodeWars#rps}.
+ *
+ * The result of a game is looked up in a 3x3 table indexed by the ordinals of
+ * the two moves, so no string is compared once the moves are parsed.
+ */
+public enum Move {
+    ROCK, PAPER, SCISSORS;
+
+    /**
+     * The result of a game, from the point of view of Player 1.
+     */
+    public enum Outcome {
+        PLAYER_1_WON("Player 1 won!"), PLAYER_2_WON("Player 2 won!"), DRAW("Draw!");
+
+        private final String message;
+
+        Outcome(String message) {
+            this.message = message;
+        }
+
+        /**
+         * Returns the message {@link GamesCodeWars#rps} uses for this result.
+         *
+         * @return "Player 1 won!", "Player 2 won!" or "Draw!".
+         */
+        public String message() {
+            return message;
+        }
+    }
+
+    private static final Move[] MOVES = values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    /**
+     * The ordinal of the outcome of every game, at {@code p1 * 3 + p2}.
+     */
+    private static final byte[] TABLE = {
+            2, 1, 0,
+            0, 2, 1,
+            1, 0, 2,
+    };
+
+    /**
+     * Returns the move with a given ordinal.
+     *
+     * @param code 0 for rock, 1 for paper or 2 for scissors.
+     * @return The move.
+     * @throws ArrayIndexOutOfBoundsException If the code is not 0, 1 or 2.
+     */
+    public static Move of(int code) {
+        return MOVES[code];
+    }
+
+    /**
+     * Parses a move written as in {@link GamesCodeWars#rps}.
+     *
+     * @param name "rock", "paper" or "scissors".
+     * @return The move, or null if the name is none of those.
+     */
+    public static Move parse(String name) {
+        switch (name) {
+            case "rock":
+                return ROCK;
+            case "paper":
+                return PAPER;
+            case "scissors":
+                return SCISSORS;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Plays this move as Player 1 against another move.
+     *
+     * @param p2 The move of Player 2.
+     * @return The result of the game.
+     */
+    public Outcome against(Move p2) {
+        return OUTCOMES[outcome(ordinal(), p2.ordinal())];
+    }
+
+    /**
+     * Returns the ordinal of the {@link Outcome} of a game between two move
+     * codes.
+     */
+    static int outcome(int p1, int p2) {
+        return TABLE[p1 * 3 + p2];
+    }
+
+}
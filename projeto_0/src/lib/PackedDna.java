@@ -0,0 +1,164 @@
+package lib;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A nucleotide sequence stored with 2 bits per base, a quarter of the memory of
+ * one byte per base and an eighth of a {@link String}.
+ *
+ * The bases are A = 0, C = 1, G = 2 and T/U = 3, so the same packed sequence can
+ * be unpacked as DNA or as RNA. Packing accepts upper and lower case; any other
+ * character, such as the 'N' of an unknown base, is rejected.
+ */
+public final class PackedDna {
+
+    private static final byte[] CODE = new byte[128];
+    private static final byte[] DNA = { 'A', 'C', 'G', 'T' };
+    private static final byte[] RNA = { 'A', 'C', 'G', 'U' };
+
+    static {
+        Arrays.fill(CODE, (byte) -1);
+        for (String bases : new String[] { "ACGT", "acgt" }) {
+            for (int i = 0; i < 4; i++) {
+                CODE[bases.charAt(i)] = (byte) i;
+            }
+        }
+        CODE['U'] = 3;
+        CODE['u'] = 3;
+    }
+
+    private final long[] words;
+    private final long length;
+
+    private PackedDna(long[] words, long length) {
+        this.words = words;
+        this.length = length;
+    }
+
+    /**
+     * Packs a DNA or RNA sequence.
+     *
+     * @param bases The sequence, made only of A, C, G, T and U.
+     * @return The packed sequence.
+     * @throws IllegalArgumentException If the sequence has any other character.
+     */
+    public static PackedDna of(CharSequence bases) {
+        Builder builder = new Builder();
+        for (int i = 0; i < bases.length(); i++) {
+            char c = bases.charAt(i);
+            if (c >= 128 || !builder.append((byte) c)) {
+                throw new IllegalArgumentException("Invalid base '" + c + "' at position " + i + ".");
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of bases.
+     *
+     * @return The length of the sequence.
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns one base of the sequence.
+     *
+     * @param index The position of the base.
+     * @param rna   true to return 'U' instead of 'T'.
+     * @return The base at the given position, in upper case.
+     * @throws IndexOutOfBoundsException If the index is outside the sequence.
+     */
+    public char base(long index, boolean rna) {
+        Objects.checkIndex(index, length);
+        return (char) (rna ? RNA : DNA)[code(index)];
+    }
+
+    private int code(long index) {
+        return (int) (words[(int) (index >>> 5)] >>> ((index & 31) << 1)) & 3;
+    }
+
+    /**
+     * Unpacks the bases {@code [from, from + count)} as ASCII letters.
+     *
+     * @param from   The first base to unpack.
+     * @param count  The number of bases to unpack.
+     * @param dst    The array that receives one byte per base.
+     * @param offset The position in 'dst' where the first base is written.
+     * @param rna    true to write 'U' instead of 'T'.
+     * @return The number of bytes written, which is 'count'.
+     * @throws IndexOutOfBoundsException If the range is outside the sequence or
+     *                                   does not fit in 'dst'.
+     */
+    public int unpack(long from, int count, byte[] dst, int offset, boolean rna) {
+        Objects.checkFromIndexSize(from, count, length);
+        Objects.checkFromIndexSize(offset, count, dst.length);
+        byte[] letters = rna ? RNA : DNA;
+
+        for (int i = 0; i < count; i++) {
+            dst[offset + i] = letters[code(from + i)];
+        }
+        return count;
+    }
+
+    /**
+     * Unpacks the whole sequence as RNA.
+     *
+     * @return The sequence with 'U' for every 'T'.
+     */
+    public String toRna() {
+        return unpackAll(true);
+    }
+
+    /**
+     * Unpacks the whole sequence as DNA.
+     *
+     * @return The sequence with 'T' for every 'U'.
+     */
+    @Override
+    public String toString() {
+        return unpackAll(false);
+    }
+
+    private String unpackAll(boolean rna) {
+        byte[] letters = new byte[Math.toIntExact(length)];
+        unpack(0, letters.length, letters, 0, rna);
+        return new String(letters, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Packs bases one at a time, growing as needed.
+     */
+    static final class Builder {
+        private long[] words = new long[16];
+        private long length;
+
+        /**
+         * Appends one base given as an ASCII letter.
+         *
+         * @param b The letter of the base.
+         * @return false if the byte is not a base, in which case nothing is
+         *         appended.
+         */
+        boolean append(byte b) {
+            int code = b < 0 ? -1 : CODE[b];
+            if (code < 0)
+                return false;
+
+            int word = (int) (length >>> 5);
+            if (word == words.length)
+                words = Arrays.copyOf(words, words.length * 2);
+            words[word] |= (long) code << ((length & 31) << 1);
+            length++;
+            return true;
+        }
+
+        PackedDna build() {
+            return new PackedDna(Arrays.copyOf(words, (int) ((length + 31) >>> 5)), length);
+        }
+    }
+
+}
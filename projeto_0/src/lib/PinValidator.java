@@ -0,0 +1,255 @@
+package lib;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Validates PINs in bulk with the rule of {@link StrsCodeWars#validatePin}: a
+ * PIN is valid when it has exactly 4 or 6 characters, all of them ASCII digits.
+ *
+ * Every bulk method returns a {@link Report} with the positions of the valid
+ * PINs and how many PINs failed for each reason. Files are read as
+ * newline-delimited bytes through memory-mapped chunks, so no {@link String} is
+ * created per PIN. A trailing '\r' on a line is ignored.
+ */
+public final class PinValidator {
+
+    /**
+     * Number of items (or bytes, for files) each parallel task validates.
+     */
+    static final int CHUNK = 1 << 24;
+
+    /**
+     * The outcome of validating one PIN.
+     */
+    public enum Result {
+        VALID, WRONG_LENGTH, NON_DIGIT
+    }
+
+    private static final Result[] RESULTS = Result.values();
+
+    private PinValidator() {
+    }
+
+    /**
+     * Validates a single PIN.
+     *
+     * @param pin The PIN to validate.
+     * @return {@link Result#VALID}, or the reason the PIN is invalid. The length is
+     *         checked before the digits.
+     */
+    public static Result check(CharSequence pin) {
+        int length = pin.length();
+        if (length != 4 && length != 6)
+            return Result.WRONG_LENGTH;
+
+        for (int i = 0; i < length; i++) {
+            char c = pin.charAt(i);
+            if (c < '0' || c > '9')
+                return Result.NON_DIGIT;
+        }
+        return Result.VALID;
+    }
+
+    /**
+     * Validates the bytes {@code [from, to)} of a buffer as one PIN.
+     */
+    private static Result check(ByteBuffer buf, int from, int to) {
+        int length = to - from;
+        if (length != 4 && length != 6)
+            return Result.WRONG_LENGTH;
+
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b < '0' || b > '9')
+                return Result.NON_DIGIT;
+        }
+        return Result.VALID;
+    }
+
+    /**
+     * Validates every PIN of a list.
+     *
+     * @param pins The PINs to validate.
+     * @return The report, where position i refers to {@code pins.get(i)}.
+     */
+    public static Report validate(List<? extends CharSequence> pins) {
+        Report report = new Report();
+        for (CharSequence pin : pins) {
+            report.add(check(pin));
+        }
+        return report;
+    }
+
+    /**
+     * Validates every PIN of an array.
+     *
+     * @param pins The PINs to validate.
+     * @return The report, where position i refers to {@code pins[i]}.
+     */
+    public static Report validate(CharSequence[] pins) {
+        Report report = new Report();
+        for (CharSequence pin : pins) {
+            report.add(check(pin));
+        }
+        return report;
+    }
+
+    /**
+     * Validates every PIN of an array, splitting it in chunks that are validated
+     * in parallel.
+     *
+     * @param pins The PINs to validate.
+     * @return The report, where position i refers to {@code pins[i]}.
+     */
+    public static Report validateParallel(CharSequence[] pins) {
+        int chunks = (pins.length + CHUNK - 1) / CHUNK;
+
+        return combine(IntStream.range(0, chunks).parallel().mapToObj(c -> {
+            Report report = new Report();
+            int to = (int) Math.min(pins.length, (c + 1L) * CHUNK);
+            for (int i = c * CHUNK; i < to; i++) {
+                report.add(check(pins[i]));
+            }
+            return report;
+        }));
+    }
+
+    /**
+     * Validates every line of a newline-delimited file.
+     *
+     * @param file The file with one PIN per line.
+     * @return The report, where position i refers to line i + 1.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Report validate(Path file) throws IOException {
+        return validate(file, false);
+    }
+
+    /**
+     * Validates every line of a newline-delimited file, splitting it on line
+     * boundaries into chunks that are validated in parallel.
+     *
+     * @param file The file with one PIN per line.
+     * @return The report, where position i refers to line i + 1.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Report validateParallel(Path file) throws IOException {
+        return validate(file, true);
+    }
+
+    private static Report validate(Path file, boolean parallel) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) ((size + CHUNK - 1) / CHUNK);
+
+            IntStream indexes = IntStream.range(0, chunks);
+            if (parallel)
+                indexes = indexes.parallel();
+
+            return combine(indexes.mapToObj(c -> {
+                try {
+                    return validateChunk(channel, size, (long) c * CHUNK);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Validates the lines that start in {@code [start, start + CHUNK)}. The last
+     * line may continue past the chunk, so a few extra bytes are mapped to see
+     * whether its length is still 4 or 6.
+     */
+    private static Report validateChunk(FileChannel channel, long size, long start) throws IOException {
+        Report report = new Report();
+        FileChunks.forEachLine(channel, size, start, CHUNK, 7, (index, buf, from, to) -> {
+            int lineEnd = (to > from && buf.get(to - 1) == '\r') ? to - 1 : to;
+            report.add(check(buf, from, lineEnd));
+        });
+        return report;
+    }
+
+    private static Report combine(Stream<Report> parts) {
+        return parts.collect(Report::new, Report::append, Report::append);
+    }
+
+    /**
+     * The outcome of a bulk validation.
+     */
+    public static final class Report {
+        private final BitSet valid = new BitSet();
+        private final long[] counts = new long[RESULTS.length];
+        private int size;
+
+        private void add(Result result) {
+            if (result == Result.VALID)
+                valid.set(size);
+            counts[result.ordinal()]++;
+            size++;
+        }
+
+        /**
+         * Appends the PINs of another report after the ones of this report.
+         */
+        private void append(Report other) {
+            for (int i = other.valid.nextSetBit(0); i >= 0; i = other.valid.nextSetBit(i + 1)) {
+                valid.set(size + i);
+            }
+
+            for (int r = 0; r < counts.length; r++) {
+                counts[r] += other.counts[r];
+            }
+            size += other.size;
+        }
+
+        /**
+         * Returns the positions of the valid PINs.
+         *
+         * @return A bitset with bit i set when PIN i is valid.
+         */
+        public BitSet valid() {
+            return valid;
+        }
+
+        /**
+         * Returns how many PINs had a given result.
+         *
+         * @param result The result to count.
+         * @return The number of PINs with that result.
+         */
+        public long count(Result result) {
+            return counts[result.ordinal()];
+        }
+
+        /**
+         * Returns the number of PINs validated.
+         *
+         * @return The number of PINs in the report.
+         */
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder().append(size).append(" PINs");
+            for (Result r : RESULTS) {
+                sb.append(", ").append(r).append('=').append(counts[r.ordinal()]);
+            }
+            return sb.toString();
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package lib;
+
+import java.util.Objects;
+
+/**
+ * A read-only view of a character sequence in reverse order, created in O(1)
+ * without copying the characters.
+ *
+ * Surrogate pairs are kept in order, as in {@link StringBuilder#reverse()}, so
+ * a supplementary character stays a valid pair in the reversed view. Characters
+ * are only copied by {@link #toString()}. Since the view reads the original
+ * sequence on every call, the original must not change while the view is in
+ * use.
+ *
+ * The view can be compared with other sequences through
+ * {@link CharSequence#compare(CharSequence, CharSequence)} or iterated through
+ * {@link #chars()} without materializing it.
+ */
+public final class ReversedCharSequence implements CharSequence {
+
+    private final CharSequence source;
+    private final int lo;
+    private final int hi;
+    private final int start;
+    private final int end;
+
+    /**
+     * Creates a view of the characters {@code [start, end)} of the reversal of
+     * {@code source[lo, hi)}.
+     */
+    private ReversedCharSequence(CharSequence source, int lo, int hi, int start, int end) {
+        this.source = source;
+        this.lo = lo;
+        this.hi = hi;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Returns a reversed view of a whole sequence.
+     *
+     * @param source The sequence to be reversed.
+     * @return The reversed view.
+     */
+    public static ReversedCharSequence of(CharSequence source) {
+        return new ReversedCharSequence(Objects.requireNonNull(source), 0, source.length(), 0, source.length());
+    }
+
+    /**
+     * Returns a reversed view of the characters {@code [from, to)} of a sequence.
+     *
+     * @param source The sequence to be reversed.
+     * @param from   The first character, inclusive.
+     * @param to     The last character, exclusive.
+     * @return The reversed view.
+     * @throws IndexOutOfBoundsException If the range is outside the sequence.
+     */
+    public static ReversedCharSequence of(CharSequence source, int from, int to) {
+        Objects.checkFromToIndex(from, to, source.length());
+        return new ReversedCharSequence(source, from, to, 0, to - from);
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length());
+        int i = hi - 1 - (start + index);
+        char c = source.charAt(i);
+
+        if (Character.isLowSurrogate(c) && i > lo) {
+            char high = source.charAt(i - 1);
+            if (Character.isHighSurrogate(high))
+                return high;
+        } else if (Character.isHighSurrogate(c) && i + 1 < hi) {
+            char low = source.charAt(i + 1);
+            if (Character.isLowSurrogate(low))
+                return low;
+        }
+        return c;
+    }
+
+    @Override
+    public ReversedCharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length());
+        return new ReversedCharSequence(source, lo, hi, this.start + start, this.start + end);
+    }
+
+    /**
+     * Copies the view into a new String.
+     *
+     * @return The reversed characters.
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[hi - lo];
+        if (source instanceof String) {
+            ((String) source).getChars(lo, hi, chars, 0);
+        } else {
+            for (int i = lo; i < hi; i++) {
+                chars[i - lo] = source.charAt(i);
+            }
+        }
+        reverse(chars, 0, chars.length);
+        return new String(chars, start, end - start);
+    }
+
+    /**
+     * Reverses the characters {@code [from, to)} of an array in place. Surrogate
+     * pairs are kept in order, as in {@link StringBuilder#reverse()}.
+     *
+     * @param chars The array to be reversed.
+     * @param from  The first character, inclusive.
+     * @param to    The last character, exclusive.
+     * @throws IndexOutOfBoundsException If the range is outside the array.
+     */
+    public static void reverse(char[] chars, int from, int to) {
+        Objects.checkFromToIndex(from, to, chars.length);
+        boolean surrogates = false;
+
+        for (int l = from, r = to - 1; l < r; l++, r--) {
+            char c = chars[l];
+            chars[l] = chars[r];
+            chars[r] = c;
+            surrogates |= Character.isSurrogate(c) || Character.isSurrogate(chars[l]);
+        }
+        if (!surrogates)
+            return;
+
+        for (int i = from; i < to - 1; i++) {
+            char c = chars[i];
+            if (Character.isLowSurrogate(c) && Character.isHighSurrogate(chars[i + 1])) {
+                chars[i] = chars[i + 1];
+                chars[i + 1] = c;
+                i++;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,328 @@
+package lib;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Padding before the consumer index, so it does not share a cache line with
+ * the fields of the object header or with the array references.
+ */
+abstract class RingQueuePad0<E> extends AbstractQueue<E> {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class RingQueueHead<E> extends RingQueuePad0<E> {
+    volatile long head;
+}
+
+/**
+ * Padding between the consumer and the producer indexes, so consumers and
+ * producers do not invalidate each other's cache line on every operation.
+ */
+abstract class RingQueuePad1<E> extends RingQueueHead<E> {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+    long p30, p31, p32, p33, p34, p35, p36, p37;
+}
+
+abstract class RingQueueTail<E> extends RingQueuePad1<E> {
+    volatile long tail;
+}
+
+abstract class RingQueuePad2<E> extends RingQueueTail<E> {
+    long p40, p41, p42, p43, p44, p45, p46, p47;
+    long p50, p51, p52, p53, p54, p55, p56, p57;
+}
+
+/**
+ * A bounded lock-free queue for any number of producers and consumers, backed
+ * by a ring buffer whose capacity is a power of two.
+ *
+ * Every slot has a sequence number that tells whose turn it is. A producer may
+ * fill the slot of position 'p' when its sequence is 'p', and publishes the
+ * element by setting it to 'p + 1'. A consumer may take it when the sequence is
+ * 'p + 1', and hands the slot to the next lap of producers by setting it to
+ * 'p + capacity'. Producers and consumers only contend on a CAS of their own
+ * index, and the two indexes are padded onto separate cache lines.
+ *
+ * Like {@link java.util.concurrent.ArrayBlockingQueue}, {@link #add} throws
+ * when the queue is full while {@link #offer} returns false, and null elements
+ * are rejected. Unlike it, nothing ever blocks. {@link #drainTo} claims a whole
+ * batch of elements with a single CAS. Iterators are weakly consistent and do
+ * not support removal.
+ *
+ * @param <E> The type of the elements.
+ */
+public final class RingQueue<E> extends RingQueuePad2<E> {
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle ITEM = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(RingQueueHead.class, "head", long.class);
+            TAIL = lookup.findVarHandle(RingQueueTail.class, "tail", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long[] sequences;
+    private final Object[] items;
+    private final int mask;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity The minimum number of elements the queue holds. It is
+     *                 rounded up to a power of two.
+     * @throws IllegalArgumentException If the capacity is less than 1 or greater
+     *                                  than 2^30.
+     */
+    public RingQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30.");
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+
+        this.sequences = new long[size];
+        this.items = new Object[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences[i] = i;
+        }
+    }
+
+    /**
+     * Returns the number of elements the queue holds when it is full.
+     *
+     * @return The capacity, a power of two.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns how many more elements could be added right now.
+     *
+     * @return The free slots, which may be stale when other threads are active.
+     */
+    public int remainingCapacity() {
+        return capacity() - size();
+    }
+
+    private long sequence(long position) {
+        return (long) SEQUENCE.getAcquire(sequences, (int) position & mask);
+    }
+
+    private void setSequence(long position, long value) {
+        SEQUENCE.setRelease(sequences, (int) position & mask, value);
+    }
+
+    /**
+     * Adds an element at the tail of the queue if there is room.
+     *
+     * @param e The element to add.
+     * @return false if the queue is full.
+     * @throws NullPointerException If the element is null.
+     */
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        long pos = tail;
+
+        while (true) {
+            long dif = sequence(pos) - pos;
+            if (dif == 0) {
+                if (TAIL.weakCompareAndSet(this, pos, pos + 1))
+                    break;
+                pos = tail;
+            } else if (dif < 0) {
+                return false;
+            } else {
+                pos = tail;
+            }
+        }
+
+        ITEM.set(items, (int) pos & mask, e);
+        setSequence(pos, pos + 1);
+        return true;
+    }
+
+    /**
+     * Removes the element at the head of the queue.
+     *
+     * @return The element, or null if the queue is empty.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long pos = head;
+
+        while (true) {
+            long dif = sequence(pos) - (pos + 1);
+            if (dif == 0) {
+                if (HEAD.weakCompareAndSet(this, pos, pos + 1))
+                    break;
+                pos = head;
+            } else if (dif < 0) {
+                return null;
+            } else {
+                pos = head;
+            }
+        }
+
+        int index = (int) pos & mask;
+        E e = (E) ITEM.get(items, index);
+        ITEM.set(items, index, null);
+        setSequence(pos, pos + mask + 1);
+        return e;
+    }
+
+    /**
+     * Returns the element at the head of the queue without removing it.
+     *
+     * @return The element, or null if the queue is empty.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E peek() {
+        while (true) {
+            long pos = head;
+            long dif = sequence(pos) - (pos + 1);
+            if (dif < 0)
+                return null;
+            if (dif == 0) {
+                E e = (E) ITEM.getAcquire(items, (int) pos & mask);
+                if (e != null && head == pos)
+                    return e;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of elements in the queue.
+     *
+     * @return The size, which may be stale when other threads are active.
+     */
+    @Override
+    public int size() {
+        while (true) {
+            long h = head;
+            long t = tail;
+            if (head == h)
+                return (int) Math.max(0, Math.min(t - h, capacity()));
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        long h = head;
+        return sequence(h) != h + 1;
+    }
+
+    /**
+     * Removes every available element and adds it to a collection.
+     *
+     * @param c The collection that receives the elements.
+     * @return The number of elements moved.
+     */
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes up to 'maxElements' available elements and adds them to a
+     * collection. The ready elements at the head are claimed as one batch, with a
+     * single CAS.
+     *
+     * @param c           The collection that receives the elements.
+     * @param maxElements The maximum number of elements to move.
+     * @return The number of elements moved.
+     * @throws IllegalArgumentException If the collection is this queue.
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        Objects.requireNonNull(c);
+        if (c == this)
+            throw new IllegalArgumentException("Cannot drain a queue into itself.");
+
+        int drained = 0;
+        while (drained < maxElements) {
+            long pos = head;
+            int limit = Math.min(maxElements - drained, capacity());
+            int ready = 0;
+            while (ready < limit && sequence(pos + ready) == pos + ready + 1)
+                ready++;
+
+            if (ready == 0)
+                break;
+            if (!HEAD.weakCompareAndSet(this, pos, pos + ready))
+                continue;
+
+            for (int i = 0; i < ready; i++) {
+                int index = (int) (pos + i) & mask;
+                E e = (E) ITEM.get(items, index);
+                ITEM.set(items, index, null);
+                setSequence(pos + i, pos + i + mask + 1);
+                c.add(e);
+            }
+            drained += ready;
+        }
+        return drained;
+    }
+
+    /**
+     * Returns a weakly consistent iterator from head to tail. Elements taken by
+     * consumers while iterating are skipped.
+     *
+     * @return An iterator that does not support {@link Iterator#remove()}.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private long pos = head;
+            private final long end = tail;
+            private E next = advance();
+
+            @SuppressWarnings("unchecked")
+            private E advance() {
+                for (pos = Math.max(pos, head); pos < end; pos++) {
+                    if (sequence(pos) == pos + 1) {
+                        E e = (E) ITEM.getAcquire(items, (int) pos & mask);
+                        if (e != null && sequence(pos) == pos + 1) {
+                            pos++;
+                            return e;
+                        }
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public E next() {
+                if (next == null)
+                    throw new NoSuchElementException();
+                E e = next;
+                next = advance();
+                return e;
+            }
+        };
+    }
+
+}
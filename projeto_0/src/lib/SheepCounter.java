@@ -0,0 +1,193 @@
+package lib;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Writes the output of {@link StrsCodeWars#countingSheep(int)},
+ * {@code "1 Sheep...2 Sheep...3 Sheep..."}, without building it as one
+ * {@link String}.
+ *
+ * The exact length of the output is known before anything is written, so
+ * callers can presize their buffers. The loops count in longs, so a count up to
+ * {@link Integer#MAX_VALUE} ends instead of wrapping around. The numbers are written digit by digit into
+ * a fixed-size buffer that is flushed whenever it fills up.
+ */
+public final class SheepCounter {
+
+    /**
+     * Number of sheep each parallel task writes to a file.
+     */
+    static final int RANGE = 1 << 20;
+
+    static final int BUFFER = 1 << 16;
+
+    private static final String SHEEP = " Sheep...";
+
+    private SheepCounter() {
+    }
+
+    /**
+     * Returns the length of the output for 'num' sheep.
+     *
+     * @param num The number of sheep to count up to.
+     * @return The number of characters written for 'num' sheep.
+     * @throws IllegalArgumentException If 'num' is less than or equal to zero.
+     */
+    public static long length(int num) {
+        check(num);
+        return LineNumberer.digitsUpTo(num) + (long) SHEEP.length() * num;
+    }
+
+    private static void check(int num) {
+        if (num <= 0) {
+            throw new IllegalArgumentException("Input number 'num' must be greater than zero.");
+        }
+    }
+
+    /**
+     * Counts the sheep into a String of the exact size.
+     *
+     * @param num The number of sheep to count up to.
+     * @return The same string as {@link StrsCodeWars#countingSheep(int)}.
+     * @throws IllegalArgumentException If 'num' is less than or equal to zero.
+     * @throws ArithmeticException      If the output is too long for a String.
+     */
+    public static String toString(int num) {
+        byte[] out = new byte[Math.toIntExact(length(num))];
+        int o = 0;
+        for (long i = 1; i <= num; i++) {
+            o = format((int) i, out, o);
+        }
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Counts the sheep into an Appendable, in chunks of a fixed size.
+     *
+     * @param num The number of sheep to count up to.
+     * @param out The destination of the count. A {@link Writer} receives each
+     *            chunk as a char array. It is not flushed or closed.
+     * @return The number of characters written.
+     * @throws IOException              If writing fails.
+     * @throws IllegalArgumentException If 'num' is less than or equal to zero.
+     */
+    public static long write(int num, Appendable out) throws IOException {
+        long length = length(num);
+        char[] buf = new char[BUFFER];
+        int o = 0;
+
+        for (long i = 1; i <= num; i++) {
+            if (o > BUFFER - 20) {
+                flush(buf, o, out);
+                o = 0;
+            }
+            o = format((int) i, buf, o);
+        }
+        flush(buf, o, out);
+        return length;
+    }
+
+    private static void flush(char[] buf, int length, Appendable out) throws IOException {
+        if (out instanceof Writer)
+            ((Writer) out).write(buf, 0, length);
+        else
+            out.append(CharBuffer.wrap(buf, 0, length));
+    }
+
+    /**
+     * Counts the sheep into a file as ASCII. The count is split into ranges of
+     * {@link #RANGE} sheep that are written in parallel, each one at its exact
+     * place in a memory-mapped file.
+     *
+     * @param num The number of sheep to count up to.
+     * @param out The file that receives the count. It is created or truncated.
+     * @return The number of bytes written.
+     * @throws IOException              If the file cannot be written.
+     * @throws IllegalArgumentException If 'num' is less than or equal to zero.
+     */
+    public static long write(int num, Path out) throws IOException {
+        long length = length(num);
+        int ranges = (int) ((num + (long) RANGE - 1) / RANGE);
+
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            IntStream.range(0, ranges).parallel().forEach(r -> {
+                int first = r * RANGE + 1;
+                int last = (int) Math.min(num, (r + 1L) * RANGE);
+                try {
+                    writeRange(channel, first, last);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return length;
+    }
+
+    /**
+     * Writes the sheep {@code [first, last]}. They start right after the output
+     * of the sheep before 'first'.
+     */
+    private static void writeRange(FileChannel channel, int first, int last) throws IOException {
+        long start = first == 1 ? 0 : length(first - 1);
+        long end = length(last);
+        MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, start, end - start);
+        byte[] buf = new byte[BUFFER];
+        int o = 0;
+
+        for (long i = first; i <= last; i++) {
+            if (o > BUFFER - 20) {
+                out.put(buf, 0, o);
+                o = 0;
+            }
+            o = format((int) i, buf, o);
+        }
+        out.put(buf, 0, o);
+    }
+
+    private static int digits(int n) {
+        int digits = 1;
+        for (int limit = 10; n >= limit && digits < 10; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Writes {@code "<i> Sheep..."} into 'dst' at 'offset' and returns the
+     * position after it.
+     */
+    private static int format(int i, byte[] dst, int offset) {
+        int end = offset + digits(i);
+        for (int p = end - 1; p >= offset; p--) {
+            dst[p] = (byte) ('0' + i % 10);
+            i /= 10;
+        }
+        for (int k = 0; k < SHEEP.length(); k++) {
+            dst[end + k] = (byte) SHEEP.charAt(k);
+        }
+        return end + SHEEP.length();
+    }
+
+    private static int format(int i, char[] dst, int offset) {
+        int end = offset + digits(i);
+        for (int p = end - 1; p >= offset; p--) {
+            dst[p] = (char) ('0' + i % 10);
+            i /= 10;
+        }
+        SHEEP.getChars(0, SHEEP.length(), dst, end);
+        return end + SHEEP.length();
+    }
+
+}
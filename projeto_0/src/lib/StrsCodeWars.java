@@ -1,8 +1,10 @@
 package lib;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -10,6 +12,17 @@ import java.util.stream.Collectors;
  */
 public class StrsCodeWars {
 
+    /**
+     * Lookup table for {@link #getCount(String)}: true for 'a', 'e', 'i', 'o' and
+     * 'u'.
+     */
+    private static final boolean[] VOWELS = new boolean[128];
+    static {
+        for (char c : "aeiou".toCharArray()) {
+            VOWELS[c] = true;
+        }
+    }
+
     /**
      * Converts DNA to RNA by replacing each 'T' with 'U'.
      *
@@ -27,7 +40,20 @@ public class StrsCodeWars {
      * @return The string with all exclamation marks removed.
      */
     static String removeExclamationMarks(String s) {
-        return s.replaceAll("!", "");
+        int first = s.indexOf('!');
+        if (first < 0)
+            return s;
+
+        char[] chars = new char[s.length() - 1];
+        s.getChars(0, first, chars, 0);
+        int length = first;
+
+        for (int i = first + 1; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != '!')
+                chars[length++] = c;
+        }
+        return new String(chars, 0, length);
     }
 
     /**
@@ -51,12 +77,10 @@ public class StrsCodeWars {
     public static boolean isIsogram(String str) {
         String lower = str.toLowerCase();
 
-        Set<Character> chr = new HashSet<>();
-        for (var c : lower.toCharArray()) {
-            if (chr.contains(c))
+        CharBitSet chr = new CharBitSet();
+        for (int i = 0; i < lower.length(); i++) {
+            if (!chr.add(lower.charAt(i)))
                 return false;
-
-            chr.add(c);
         }
         return true;
     }
@@ -70,6 +94,42 @@ public class StrsCodeWars {
      *         strings.
      */
     public static String longest(String s1, String s2) {
+        int mask1 = letterMask(s1);
+        int mask2 = letterMask(s2);
+        if (mask1 < 0 || mask2 < 0)
+            return longestSorted(s1, s2);
+
+        int mask = mask1 | mask2;
+        char[] letters = new char[Integer.bitCount(mask)];
+
+        for (int i = 0; mask != 0; i++, mask &= mask - 1) {
+            letters[i] = (char) ('a' + Integer.numberOfTrailingZeros(mask));
+        }
+        return new String(letters);
+    }
+
+    /**
+     * Builds a 26-bit mask with bit i set when the letter 'a' + i occurs in the
+     * string.
+     *
+     * @param s The input string.
+     * @return The letter mask, or -1 if the string has a character outside 'a' to
+     *         'z'.
+     */
+    private static int letterMask(String s) {
+        int mask = 0;
+
+        for (int i = 0; i < s.length(); i++) {
+            int letter = s.charAt(i) - 'a';
+            if (letter < 0 || letter >= 26)
+                return -1;
+
+            mask |= 1 << letter;
+        }
+        return mask;
+    }
+
+    private static String longestSorted(String s1, String s2) {
         String concatStr = s1 + s2;
         char[] longestArray = concatStr.toCharArray();
         Arrays.sort(longestArray);
@@ -92,9 +152,10 @@ public class StrsCodeWars {
      *
      * @param pin The input PIN number as a string.
      * @return true if the PIN is valid (4 or 6 digits), false otherwise.
+     * @see PinValidator
      */
     public static boolean validatePin(String pin) {
-        return pin.matches("\\d{4}|\\d{6}") && pin.matches("\\d+");
+        return PinValidator.check(pin) == PinValidator.Result.VALID;
     }
 
     /**
@@ -102,19 +163,10 @@ public class StrsCodeWars {
      *
      * @param original The original input string.
      * @return The reversed string.
+     * @see ReversedCharSequence
      */
     public static String reverseWords(final String original) {
-        char[] charArray = original.toCharArray();
-        int left = 0;
-        int right = charArray.length - 1;
-        while (left < right) {
-            char temp = charArray[left];
-            charArray[left] = charArray[right];
-            charArray[right] = temp;
-            left++;
-            right--;
-        }
-        return new String(charArray);
+        return ReversedCharSequence.of(original).toString();
     }
 
     /**
@@ -203,42 +255,38 @@ public class StrsCodeWars {
      *         with case sensitivity.
      */
     public static int duplicateCount(String text) {
-        char[] charArray = text.toCharArray();
-        Set<Character> duplicates = new HashSet<>();
-        Set<Character> markedCharacters = new HashSet<>();
+        CharBitSet duplicates = new CharBitSet();
+        CharBitSet markedCharacters = new CharBitSet();
+        int count = 0;
 
-        for (char currentChar : charArray) {
-            char lowerCaseChar = Character.toLowerCase(currentChar);
+        for (int i = 0; i < text.length(); i++) {
+            char lowerCaseChar = Character.toLowerCase(text.charAt(i));
 
-            if (markedCharacters.contains(lowerCaseChar)) {
-                duplicates.add(lowerCaseChar);
-            } else {
-                markedCharacters.add(lowerCaseChar);
+            if (!markedCharacters.add(lowerCaseChar) && duplicates.add(lowerCaseChar)) {
+                count++;
             }
 
         }
-        return duplicates.size();
+        return count;
     }
 
     /**
      * Counts the number of vowels (i.e., lowercase 'a', 'e', 'i', 'o', 'u') in the
      * given string.
-     * This method uses regular expression matching to find all occurrences of
-     * vowels in the input string.
+     * This method looks each character up in a vowel table instead of using a
+     * regular expression.
      *
      * @param str The input string in which vowels need to be counted.
      * @return The number of vowels (i.e., lowercase 'a', 'e', 'i', 'o', 'u') found
      *         in the input string.
      * @throws NullPointerException If the input string 'str' is null.
      *
-     * @implNote This method uses a regular expression pattern to match each vowel
-     *           in the input string.
-     *           The pattern "[aeiou]" is used to find any character in the string
-     *           that is a vowel (i.e., 'a', 'e', 'i', 'o', 'u').
-     *           The Matcher class is then used to find all occurrences of the
-     *           pattern in the string.
-     *           The count of occurrences is incremented for each match found, and
-     *           the final count is returned as the result.
+     * @implNote This method scans the input string once. Every ASCII character
+     *           is checked against a precomputed table where only 'a', 'e', 'i',
+     *           'o' and 'u' are marked, which matches the same characters as the
+     *           pattern "[aeiou]" without compiling or running a regex.
+     *           The count is incremented for each marked character, and the final
+     *           count is returned as the result.
      *
      * @implSpec This method assumes that the input string contains only lowercase
      *           characters.
@@ -253,15 +301,14 @@ public class StrsCodeWars {
      * int result = getCount(input);
      * // The result will be 7, as there are 7 vowels ('e', 'o', 'o', 'a', 'e', 'o', 'a') in the input string.
      * }
-     *
-     * @see Matcher
-     * @see Pattern
      */
     public static int getCount(String str) {
-        Matcher matcher = Pattern.compile("[aeiou]").matcher(str);
         int count = 0;
-        while (matcher.find()) {
-            count++;
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c < VOWELS.length && VOWELS[c]) {
+                count++;
+            }
         }
         return count;
     }
@@ -298,20 +345,10 @@ public class StrsCodeWars {
      *         separated by ellipsis ("...").
      * @throws IllegalArgumentException If the input number 'num' is less than or
      *                                  equal to zero.
+     * @see SheepCounter
      */
     public static String countingSheep(int num) {
-        if (num <= 0) {
-            throw new IllegalArgumentException("Input number 'num' must be greater than zero.");
-        }
-
-        StringBuilder result = new StringBuilder();
-
-        for (int i = 1; i <= num; i++) {
-            String sheepCount = i + " Sheep...";
-            result.append(sheepCount);
-        }
-
-        return result.toString();
+        return SheepCounter.toString(num);
     }
 
     /**
@@ -324,10 +361,11 @@ public class StrsCodeWars {
      *         and each digit '5' and above is replaced with '1'.
      */
     public static String fakeBin(String numberString) {
-        return numberString.chars()
-                .mapToObj(c -> (c < '5') ? '0' : '1')
-                .collect(StringBuilder::new, StringBuilder::append, StringBuilder::append)
-                .toString();
+        char[] chars = new char[numberString.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (numberString.charAt(i) < '5') ? '0' : '1';
+        }
+        return new String(chars);
     }
 
     /**
@@ -358,13 +396,20 @@ public class StrsCodeWars {
      *         respective counts as values.
      */
     public static Map<Character, Integer> count(String str) {
-        Map<Character, Integer> occurrences = new HashMap<>();
+        return CharHistogram.of(str).toMap();
+    }
 
-        for (int i = 0; i < str.length(); i++) {
-            char c = str.charAt(i);
-            occurrences.put(c, occurrences.getOrDefault(c, 0) + 1);
-        }
-        return occurrences;
+    /**
+     * Counts the occurrences of each character in a UTF-8 file without loading it
+     * into memory.
+     *
+     * @param file The UTF-8 file to be analyzed.
+     * @return A histogram with the number of occurrences of each character.
+     * @throws IOException If the file cannot be read.
+     * @see CharHistogram#of(Path)
+     */
+    public static CharHistogram count(Path file) throws IOException {
+        return CharHistogram.of(file);
     }
 
     /**
@@ -382,25 +427,10 @@ public class StrsCodeWars {
      * @param s The input string containing words separated by spaces.
      * @return The word with the highest score in the string. If the input string is
      *         empty, an empty string is returned.
+     * @see HighScoringWord
      */
     public static String high(String s) {
-        String[] wordArray = s.split(" ");
-        int maxScore = 0;
-        String highestScoringWord = "";
-
-        for (String word : wordArray) {
-            int score = 0;
-            for (char c : word.toCharArray()) {
-                score += (c - 'a' + 1);
-            }
-
-            if (score > maxScore) {
-                maxScore = score;
-                highestScoringWord = word;
-            }
-
-        }
-        return highestScoringWord;
+        return HighScoringWord.find(s).word();
     }
 
     /**
@@ -450,23 +480,18 @@ public class StrsCodeWars {
      *         order.
      * @throws NullPointerException If the input string is null.
      *
-     * @implNote This method uses a StringBuilder to efficiently concatenate the
-     *           characters in reverse order,
+     * @implNote This method reverses a single copy of the characters in place,
      *           resulting in a linear time complexity with respect to the length of
-     *           the input string.
+     *           the input string. Surrogate pairs are kept in order.
      *
      * @implSpec The implementation of this method ensures that the original input
      *           string is not modified.
      *           The returned string is a new object with the reversed characters.
      *
-     * @see StringBuilder
+     * @see ReversedCharSequence
      */
     public static String solution(String str) {
-        StringBuilder a = new StringBuilder();
-        for (int i = str.length() - 1; i >= 0; i--) {
-            a.append(str.charAt(i));
-        }
-        return a.toString();
+        return ReversedCharSequence.of(str).toString();
     }
 
     /**
@@ -509,6 +534,34 @@ public class StrsCodeWars {
         return numberedLines;
     }
 
+    /**
+     * Adds line numbers to every line of a file, writing the result to another
+     * file in bounded memory.
+     *
+     * @param in  The file whose lines are numbered.
+     * @param out The file that receives the numbered lines.
+     * @return The number of lines written.
+     * @throws IOException If either file cannot be read or written.
+     * @see LineNumberer#number(Path, Path)
+     */
+    public static long number(Path in, Path out) throws IOException {
+        return LineNumberer.number(in, out);
+    }
+
+    /**
+     * Adds line numbers to every line read from a Reader, writing the result to a
+     * Writer in bounded memory.
+     *
+     * @param in  The source of the lines.
+     * @param out The destination of the numbered lines.
+     * @return The number of lines written.
+     * @throws IOException If reading or writing fails.
+     * @see LineNumberer#number(Reader, Writer)
+     */
+    public static long number(Reader in, Writer out) throws IOException {
+        return LineNumberer.number(in, out);
+    }
+
     /**
      * Converts a string into camel case by inserting a space before each uppercase
      * letter.
@@ -518,17 +571,25 @@ public class StrsCodeWars {
      *         uppercase letters.
      */
     public static String camelCase(String input) {
-        return input.replaceAll("([A-Z])", " $1");
+        StringBuilder result = new StringBuilder(input.length() + 8);
+
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c >= 'A' && c <= 'Z')
+                result.append(' ');
+            result.append(c);
+        }
+        return result.toString();
     }
+
     /**
      * Checks if the URL is encripted or not
      * @param input The input is the url
      * @return the url is safe or the url is not safe or the url has invalid format
+     * @see UrlClassifier#safeUrl()
      */
     public static String safeUrl(String input){
-        if(input.startsWith("www."))
-         return "Invalid URL";
-        return input.startsWith("https://") ? "URL is safe" : "URL is not safe";
+        return UrlClassifier.safeUrl().classify(input);
     }
 
 }
\ No newline at end of file
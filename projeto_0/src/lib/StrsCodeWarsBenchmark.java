@@ -0,0 +1,186 @@
+package lib;
+
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the scanners of {@link StrsCodeWars#getCount(String)},
+ * {@link StrsCodeWars#removeExclamationMarks(String)},
+ * {@link StrsCodeWars#camelCase(String)} and
+ * {@link StrsCodeWars#validatePin(String)} with the regexes they replaced, both
+ * compiled on every call, as the old code did, and precompiled once.
+ *
+ * Usage: {@code java lib.StrsCodeWarsBenchmark [records] [length]}, by default
+ * 100000 records of 64 chars.
+ */
+public final class StrsCodeWarsBenchmark {
+
+    private static final Pattern VOWEL = Pattern.compile("[aeiou]");
+    private static final Pattern BANG = Pattern.compile("!");
+    private static final Pattern UPPER = Pattern.compile("([A-Z])");
+    private static final Pattern PIN = Pattern.compile("\\d{4}|\\d{6}");
+
+    private StrsCodeWarsBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int length = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        SplittableRandom random = new SplittableRandom(42);
+
+        String[] text = new String[records];
+        String[] pins = new String[records];
+        for (int r = 0; r < records; r++) {
+            text[r] = record(random, length);
+            pins[r] = pin(random);
+        }
+        check(text, pins);
+
+        System.out.printf("%d records of %d chars%n", records, length);
+
+        System.out.println("getCount");
+        Benchmark.nanosPerOp("  Pattern.compile per call", records, () -> {
+            long sum = 0;
+            for (String s : text) {
+                Matcher m = Pattern.compile("[aeiou]").matcher(s);
+                while (m.find())
+                    sum++;
+            }
+            return sum;
+        });
+        Benchmark.nanosPerOp("  precompiled Pattern", records, () -> {
+            long sum = 0;
+            for (String s : text) {
+                Matcher m = VOWEL.matcher(s);
+                while (m.find())
+                    sum++;
+            }
+            return sum;
+        });
+        Benchmark.nanosPerOp("  vowel table", records, () -> {
+            long sum = 0;
+            for (String s : text)
+                sum += StrsCodeWars.getCount(s);
+            return sum;
+        });
+
+        System.out.println("removeExclamationMarks");
+        Benchmark.nanosPerOp("  String.replaceAll", records, () -> {
+            long sum = 0;
+            for (String s : text)
+                sum += s.replaceAll("!", "").length();
+            return sum;
+        });
+        Benchmark.nanosPerOp("  precompiled Pattern", records, () -> {
+            long sum = 0;
+            for (String s : text)
+                sum += BANG.matcher(s).replaceAll("").length();
+            return sum;
+        });
+        Benchmark.nanosPerOp("  char[] copy", records, () -> {
+            long sum = 0;
+            for (String s : text)
+                sum += StrsCodeWars.removeExclamationMarks(s).length();
+            return sum;
+        });
+
+        System.out.println("camelCase");
+        Benchmark.nanosPerOp("  String.replaceAll", records, () -> {
+            long sum = 0;
+            for (String s : text)
+                sum += s.replaceAll("([A-Z])", " $1").length();
+            return sum;
+        });
+        Benchmark.nanosPerOp("  precompiled Pattern", records, () -> {
+            long sum = 0;
+            for (String s : text)
+                sum += UPPER.matcher(s).replaceAll(" $1").length();
+            return sum;
+        });
+        Benchmark.nanosPerOp("  one pass", records, () -> {
+            long sum = 0;
+            for (String s : text)
+                sum += StrsCodeWars.camelCase(s).length();
+            return sum;
+        });
+
+        System.out.println("validatePin");
+        Benchmark.nanosPerOp("  two String.matches", records, () -> {
+            long sum = 0;
+            for (String p : pins) {
+                if (p.matches("\\d{4}|\\d{6}") && p.matches("\\d+"))
+                    sum++;
+            }
+            return sum;
+        });
+        Benchmark.nanosPerOp("  precompiled Pattern", records, () -> {
+            long sum = 0;
+            for (String p : pins) {
+                if (PIN.matcher(p).matches())
+                    sum++;
+            }
+            return sum;
+        });
+        Benchmark.nanosPerOp("  length and digit check", records, () -> {
+            long sum = 0;
+            for (String p : pins) {
+                if (StrsCodeWars.validatePin(p))
+                    sum++;
+            }
+            return sum;
+        });
+    }
+
+    /**
+     * Lowercase letters with some uppercase ones, spaces and exclamation marks,
+     * like the records of the text-cleaning stage.
+     */
+    private static String record(SplittableRandom random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            int k = random.nextInt(100);
+            if (k < 5)
+                chars[i] = '!';
+            else if (k < 12)
+                chars[i] = (char) ('A' + random.nextInt(26));
+            else if (k < 25)
+                chars[i] = ' ';
+            else
+                chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * A PIN of 3 to 7 chars, mostly digits.
+     */
+    private static String pin(SplittableRandom random) {
+        char[] chars = new char[3 + random.nextInt(5)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = random.nextInt(20) == 0 ? 'x' : (char) ('0' + random.nextInt(10));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Makes sure every variant computes the same results before timing them.
+     */
+    private static void check(String[] text, String[] pins) {
+        for (String s : text) {
+            Matcher m = VOWEL.matcher(s);
+            int vowels = 0;
+            while (m.find())
+                vowels++;
+            if (vowels != StrsCodeWars.getCount(s)
+                    || !s.replaceAll("!", "").equals(StrsCodeWars.removeExclamationMarks(s))
+                    || !s.replaceAll("([A-Z])", " $1").equals(StrsCodeWars.camelCase(s)))
+                throw new IllegalStateException("Scanner and regex differ on \"" + s + "\".");
+        }
+        for (String p : pins) {
+            if (PIN.matcher(p).matches() != StrsCodeWars.validatePin(p))
+                throw new IllegalStateException("PIN check differs on \"" + p + "\".");
+        }
+    }
+
+}
@@ -0,0 +1,564 @@
+package lib;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulates a bank branch, grown from the customer queue of
+ * {@code exercicios_aula_5.ExLista2_1}: arrival threads put customers in a
+ * shared {@link RingQueue} and teller threads call them in order.
+ *
+ * Each customer records when it arrived, so the time it waited is measured
+ * when a teller takes it. The time a teller spends serving it is drawn from an
+ * exponential distribution and, when sleeping is on, really spent parked, so
+ * the threads block as real tellers would. Both times go into log2-bucketed
+ * histograms built on {@link LongAdder}, and every teller counts the customers
+ * it served.
+ *
+ * A teller with nobody in the queue, and an arrival thread facing a full queue,
+ * block on a {@link Semaphore} until the other side hands over a customer or a
+ * free slot, so idle threads cost no CPU.
+ *
+ * The threads come from a {@link Scheduling}. Virtual threads need Java 21 or
+ * newer; they are created through reflection, so the simulation still compiles
+ * and runs with platform threads on Java 17.
+ *
+ * <pre>{@code
+ * TellerSimulation.Report report = TellerSimulation.builder()
+ *         .arrivals(4)
+ *         .tellers(10_000)
+ *         .customers(1_000_000)
+ *         .meanServiceNanos(200_000)
+ *         .scheduling(TellerSimulation.Scheduling.VIRTUAL)
+ *         .build()
+ *         .run();
+ * }</pre>
+ */
+public final class TellerSimulation {
+
+    /**
+     * How the arrival and teller threads are scheduled.
+     */
+    public enum Scheduling {
+        PLATFORM, VIRTUAL;
+
+        /**
+         * Checks whether this kind of thread can be created by the running JVM.
+         *
+         * @return false for virtual threads before Java 21.
+         */
+        public boolean isSupported() {
+            return this == PLATFORM || VIRTUAL_FACTORY != null;
+        }
+
+        ThreadFactory factory() {
+            if (this == PLATFORM)
+                return Thread::new;
+            if (VIRTUAL_FACTORY == null)
+                throw new UnsupportedOperationException("Virtual threads need Java 21 or newer.");
+            return VIRTUAL_FACTORY;
+        }
+    }
+
+    private static final ThreadFactory VIRTUAL_FACTORY = virtualThreadFactory();
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static final Customer CLOSED = new Customer(0, 0);
+
+    private final int arrivals;
+    private final int tellers;
+    private final long customers;
+    private final long meanServiceNanos;
+    private final boolean sleep;
+    private final int queueCapacity;
+    private final Scheduling scheduling;
+    private final long seed;
+
+    private TellerSimulation(Builder b) {
+        this.arrivals = b.arrivals;
+        this.tellers = b.tellers;
+        this.customers = b.customers;
+        this.meanServiceNanos = b.meanServiceNanos;
+        this.sleep = b.sleep;
+        this.queueCapacity = b.queueCapacity;
+        this.scheduling = b.scheduling;
+        this.seed = b.seed;
+    }
+
+    /**
+     * Creates a builder with one arrival thread, one teller, 1000 customers,
+     * a mean service time of 100 microseconds, sleeping on, a queue of 65536
+     * customers and platform threads.
+     *
+     * @return A new builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A customer in the queue.
+     */
+    private static final class Customer {
+        final long arrivedAt;
+        final long serviceNanos;
+
+        Customer(long arrivedAt, long serviceNanos) {
+            this.arrivedAt = arrivedAt;
+            this.serviceNanos = serviceNanos;
+        }
+    }
+
+    /**
+     * The queue of the branch. One semaphore counts the customers in it and the
+     * other its free slots, so threads block on them instead of polling the
+     * queue.
+     *
+     * Holding a permit means the element or the slot is there, but the thread
+     * that claimed the position before it in the ring may still be writing it.
+     * The retry loops only wait for that thread to finish.
+     */
+    private static final class Line {
+        private final RingQueue<Customer> queue;
+        private final Semaphore waiting = new Semaphore(0);
+        private final Semaphore room;
+
+        Line(int capacity) {
+            this.queue = new RingQueue<>(capacity);
+            this.room = new Semaphore(queue.capacity());
+        }
+
+        void put(Customer customer) throws InterruptedException {
+            room.acquire();
+            while (!queue.offer(customer)) {
+                Thread.yield();
+            }
+            waiting.release();
+        }
+
+        Customer take() throws InterruptedException {
+            waiting.acquire();
+            Customer customer;
+            while ((customer = queue.poll()) == null) {
+                Thread.yield();
+            }
+            room.release();
+            return customer;
+        }
+    }
+
+    /**
+     * Runs the simulation until every customer has been served. If a thread
+     * cannot be started, or the calling thread is interrupted, the threads
+     * already started are interrupted and waited for before the exception is
+     * rethrown.
+     *
+     * @return The measurements of the run.
+     * @throws UnsupportedOperationException If the scheduling is not supported by
+     *                                       the running JVM.
+     * @throws InterruptedException          If the calling thread is interrupted
+     *                                       while waiting for the run to end.
+     */
+    public Report run() throws InterruptedException {
+        ThreadFactory factory = scheduling.factory();
+        Line line = new Line(queueCapacity);
+        Report report = new Report(tellers);
+        SplittableRandom root = new SplittableRandom(seed);
+
+        Thread[] arrivalThreads = new Thread[arrivals];
+        Thread[] tellerThreads = new Thread[tellers];
+        boolean finished = false;
+        long start = System.nanoTime();
+
+        try {
+            for (int t = 0; t < tellers; t++) {
+                int teller = t;
+                Thread thread = factory.newThread(() -> serve(line, report, teller));
+                thread.start();
+                tellerThreads[t] = thread;
+            }
+
+            for (int a = 0; a < arrivals; a++) {
+                long count = customers / arrivals + (a < customers % arrivals ? 1 : 0);
+                SplittableRandom random = root.split();
+                Thread thread = factory.newThread(() -> arrive(line, count, random));
+                thread.start();
+                arrivalThreads[a] = thread;
+            }
+
+            for (Thread thread : arrivalThreads) {
+                thread.join();
+            }
+            for (int t = 0; t < tellers; t++) {
+                line.put(CLOSED);
+            }
+            for (Thread thread : tellerThreads) {
+                thread.join();
+            }
+            finished = true;
+        } finally {
+            if (!finished)
+                cancel(arrivalThreads, tellerThreads);
+        }
+
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /**
+     * Interrupts the started threads and waits for all of them to end, keeping
+     * the interrupt status of the calling thread.
+     */
+    private static void cancel(Thread[]... groups) {
+        for (Thread[] threads : groups) {
+            for (Thread thread : threads) {
+                if (thread != null)
+                    thread.interrupt();
+            }
+        }
+
+        boolean interrupted = false;
+        for (Thread[] threads : groups) {
+            for (Thread thread : threads) {
+                if (thread == null)
+                    continue;
+                while (thread.isAlive()) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+
+    private void arrive(Line line, long count, SplittableRandom random) {
+        try {
+            for (long i = 0; i < count; i++) {
+                long service = (long) (-Math.log(1 - random.nextDouble()) * meanServiceNanos);
+                line.put(new Customer(System.nanoTime(), service));
+            }
+        } catch (InterruptedException e) {
+            // Cancelled by run().
+        }
+    }
+
+    private void serve(Line line, Report report, int teller) {
+        long served = 0;
+
+        while (true) {
+            Customer customer;
+            try {
+                customer = line.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (customer == CLOSED)
+                break;
+
+            report.waits.record(System.nanoTime() - customer.arrivedAt);
+            report.services.record(customer.serviceNanos);
+            if (sleep)
+                LockSupport.parkNanos(customer.serviceNanos);
+            served++;
+        }
+        report.served[teller] = served;
+    }
+
+    /**
+     * A histogram of durations in buckets of powers of two nanoseconds.
+     */
+    public static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[64];
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets[64 - Long.numberOfLeadingZeros(value)].increment();
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        /**
+         * Returns the number of recorded durations.
+         *
+         * @return The count.
+         */
+        public long count() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        /**
+         * Returns the mean of the recorded durations.
+         *
+         * @return The mean in nanoseconds, or 0 if nothing was recorded.
+         */
+        public double meanNanos() {
+            long count = count();
+            return count == 0 ? 0 : (double) total.sum() / count;
+        }
+
+        /**
+         * Returns the longest recorded duration.
+         *
+         * @return The maximum in nanoseconds.
+         */
+        public long maxNanos() {
+            return max.get();
+        }
+
+        /**
+         * Returns an upper bound of a percentile: the end of the bucket where it
+         * falls.
+         *
+         * @param percentile A value from 0 to 100.
+         * @return The percentile in nanoseconds, rounded up to a power of two.
+         */
+        public long percentileNanos(double percentile) {
+            long count = count();
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= rank && seen > 0)
+                    return i == 0 ? 0 : Math.min(maxNanos(), (1L << i) - 1);
+            }
+            return maxNanos();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("mean %.1f us, p50 <= %.1f us, p99 <= %.1f us, max %.1f us", meanNanos() / 1e3,
+                    percentileNanos(50) / 1e3, percentileNanos(99) / 1e3, maxNanos() / 1e3);
+        }
+    }
+
+    /**
+     * The measurements of a run.
+     */
+    public static final class Report {
+        private final Histogram waits = new Histogram();
+        private final Histogram services = new Histogram();
+        private final long[] served;
+        private long elapsedNanos;
+
+        private Report(int tellers) {
+            this.served = new long[tellers];
+        }
+
+        /**
+         * Returns how long customers waited in the queue.
+         *
+         * @return The wait-time histogram.
+         */
+        public Histogram waits() {
+            return waits;
+        }
+
+        /**
+         * Returns how long tellers took to serve customers.
+         *
+         * @return The service-time histogram.
+         */
+        public Histogram services() {
+            return services;
+        }
+
+        /**
+         * Returns how many customers a teller served.
+         *
+         * @param teller The teller, from 0.
+         * @return The number of customers served.
+         */
+        public long served(int teller) {
+            return served[teller];
+        }
+
+        /**
+         * Returns the wall-clock duration of the run.
+         *
+         * @return The duration in nanoseconds.
+         */
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the number of customers served per second.
+         *
+         * @return The throughput of the whole branch.
+         */
+        public double throughput() {
+            return waits.count() * 1e9 / Math.max(1, elapsedNanos);
+        }
+
+        @Override
+        public String toString() {
+            long min = Long.MAX_VALUE, max = 0;
+            for (long s : served) {
+                min = Math.min(min, s);
+                max = Math.max(max, s);
+            }
+            return String.format(
+                    "%d customers in %.3f s (%.0f/s)%nwait: %s%nservice: %s%nper teller: min %d, max %d, mean %.1f",
+                    waits.count(), elapsedNanos / 1e9, throughput(), waits, services, min, max,
+                    (double) waits.count() / served.length);
+        }
+    }
+
+    /**
+     * Configures a {@link TellerSimulation}.
+     */
+    public static final class Builder {
+        private int arrivals = 1;
+        private int tellers = 1;
+        private long customers = 1000;
+        private long meanServiceNanos = 100_000;
+        private boolean sleep = true;
+        private int queueCapacity = 1 << 16;
+        private Scheduling scheduling = Scheduling.PLATFORM;
+        private long seed = 42;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of threads that bring customers in.
+         *
+         * @param arrivals The number of arrival threads, at least 1.
+         * @return This builder.
+         */
+        public Builder arrivals(int arrivals) {
+            this.arrivals = positive(arrivals, "arrivals");
+            return this;
+        }
+
+        /**
+         * Sets the number of tellers, each one a thread.
+         *
+         * @param tellers The number of tellers, at least 1.
+         * @return This builder.
+         */
+        public Builder tellers(int tellers) {
+            this.tellers = positive(tellers, "tellers");
+            return this;
+        }
+
+        /**
+         * Sets the total number of customers.
+         *
+         * @param customers The number of customers, at least 0.
+         * @return This builder.
+         */
+        public Builder customers(long customers) {
+            if (customers < 0)
+                throw new IllegalArgumentException("customers must not be negative.");
+            this.customers = customers;
+            return this;
+        }
+
+        /**
+         * Sets the mean of the exponential service time.
+         *
+         * @param nanos The mean in nanoseconds, at least 0.
+         * @return This builder.
+         */
+        public Builder meanServiceNanos(long nanos) {
+            if (nanos < 0)
+                throw new IllegalArgumentException("meanServiceNanos must not be negative.");
+            this.meanServiceNanos = nanos;
+            return this;
+        }
+
+        /**
+         * Sets whether tellers really park for the service time. Without it the
+         * service times are only recorded, which drives millions of customers
+         * through the queue as fast as possible.
+         *
+         * @param sleep true to park for the service time.
+         * @return This builder.
+         */
+        public Builder sleep(boolean sleep) {
+            this.sleep = sleep;
+            return this;
+        }
+
+        /**
+         * Sets how many customers fit in the queue.
+         *
+         * @param capacity The capacity, rounded up to a power of two.
+         * @return This builder.
+         */
+        public Builder queueCapacity(int capacity) {
+            this.queueCapacity = positive(capacity, "queueCapacity");
+            return this;
+        }
+
+        /**
+         * Sets how the threads are scheduled.
+         *
+         * @param scheduling Platform or virtual threads.
+         * @return This builder.
+         */
+        public Builder scheduling(Scheduling scheduling) {
+            this.scheduling = Objects.requireNonNull(scheduling);
+            return this;
+        }
+
+        /**
+         * Sets the seed of the service times.
+         *
+         * @param seed The seed.
+         * @return This builder.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        private static int positive(int value, String name) {
+            if (value < 1)
+                throw new IllegalArgumentException(name + " must be at least 1.");
+            return value;
+        }
+
+        /**
+         * Creates the simulation.
+         *
+         * @return A new simulation that can be run any number of times.
+         */
+        public TellerSimulation build() {
+            return new TellerSimulation(this);
+        }
+    }
+
+}
@@ -0,0 +1,232 @@
+package lib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A chain of per-character text transforms that runs in a single pass.
+ *
+ * Calling {@link StrsCodeWars#removeExclamationMarks(String)},
+ * {@link StrsCodeWars#noSpace(String)}, {@link StrsCodeWars#MakeUpperCase(String)}
+ * and {@link StrsCodeWars#camelCase(String)} one after the other creates a new
+ * String at every step. A pipeline built with the same steps reads each input
+ * character once, passes it through every step and appends the result to one
+ * output buffer.
+ *
+ * A pipeline can be reused for any number of inputs, from any number of
+ * threads. Steps that keep state between characters are added with
+ * {@link Builder#addStateful(Supplier)}, and every call of {@link #apply} gets
+ * its own instances of them, so neither two calls nor two pipelines built
+ * from the same builder ever share that state.
+ *
+ * <pre>{@code
+ * TextPipeline clean = TextPipeline.builder()
+ *         .removeExclamationMarks()
+ *         .camelCase()
+ *         .upperCase()
+ *         .build();
+ * clean.apply("helloWorld!"); // "HELLO WORLD"
+ * }</pre>
+ */
+public final class TextPipeline {
+
+    /**
+     * Receives the characters emitted by a step.
+     */
+    @FunctionalInterface
+    public interface CharSink {
+        void put(char c);
+    }
+
+    /**
+     * One transform of the pipeline. For each input character a step may emit
+     * any number of characters to the next stage, including none.
+     */
+    @FunctionalInterface
+    public interface Step {
+        void apply(char c, CharSink next);
+
+        /**
+         * Clears any state kept between characters. Called before each input.
+         */
+        default void reset() {
+        }
+    }
+
+    private final List<Supplier<? extends Step>> steps;
+
+    private TextPipeline(List<Supplier<? extends Step>> steps) {
+        this.steps = List.copyOf(steps);
+    }
+
+    /**
+     * Creates a builder for a new pipeline.
+     *
+     * @return An empty builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Runs the pipeline over the input and appends the result to 'out'.
+     *
+     * @param input The text to be transformed.
+     * @param out   The buffer that receives the result.
+     * @return The buffer 'out'.
+     */
+    public StringBuilder apply(CharSequence input, StringBuilder out) {
+        CharSink head = out::append;
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            Step step = steps.get(i).get();
+            step.reset();
+            CharSink next = head;
+            head = c -> step.apply(c, next);
+        }
+
+        for (int i = 0; i < input.length(); i++) {
+            head.put(input.charAt(i));
+        }
+        return out;
+    }
+
+    /**
+     * Runs the pipeline over the input.
+     *
+     * @param input The text to be transformed.
+     * @return The transformed text.
+     */
+    public String apply(CharSequence input) {
+        return apply(input, new StringBuilder(input.length() + 16)).toString();
+    }
+
+    /**
+     * The step of {@link Builder#camelCaseWords()}.
+     */
+    private static final class CamelCaseWords implements Step {
+        private boolean afterLower;
+
+        @Override
+        public void apply(char c, CharSink next) {
+            boolean upper = c >= 'A' && c <= 'Z';
+            if (upper && afterLower)
+                next.put(' ');
+            next.put(c);
+            afterLower = c >= 'a' && c <= 'z';
+        }
+
+        @Override
+        public void reset() {
+            afterLower = false;
+        }
+    }
+
+    /**
+     * Builds a {@link TextPipeline}. Steps run in the order they are added.
+     */
+    public static final class Builder {
+        private final List<Supplier<? extends Step>> steps = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a custom step. The same instance is used by every call of every
+         * pipeline built from this builder, so it should keep no state between
+         * characters.
+         *
+         * @param step The step to add.
+         * @return This builder.
+         */
+        public Builder add(Step step) {
+            Objects.requireNonNull(step);
+            steps.add(() -> step);
+            return this;
+        }
+
+        /**
+         * Adds a custom step that keeps state between characters. Every call of
+         * {@link TextPipeline#apply} creates its own instance.
+         *
+         * @param factory Creates a fresh instance of the step.
+         * @return This builder.
+         */
+        public Builder addStateful(Supplier<? extends Step> factory) {
+            steps.add(Objects.requireNonNull(factory));
+            return this;
+        }
+
+        /**
+         * Adds a step that drops every '!', as in
+         * {@link StrsCodeWars#removeExclamationMarks(String)}.
+         *
+         * @return This builder.
+         */
+        public Builder removeExclamationMarks() {
+            return add((c, next) -> {
+                if (c != '!')
+                    next.put(c);
+            });
+        }
+
+        /**
+         * Adds a step that drops every ' ', as in {@link StrsCodeWars#noSpace(String)}.
+         *
+         * @return This builder.
+         */
+        public Builder noSpace() {
+            return add((c, next) -> {
+                if (c != ' ')
+                    next.put(c);
+            });
+        }
+
+        /**
+         * Adds a step that converts 'a' to 'z' into uppercase, as in
+         * {@link StrsCodeWars#MakeUpperCase(String)}.
+         *
+         * @return This builder.
+         */
+        public Builder upperCase() {
+            return add((c, next) -> next.put((c >= 'a' && c <= 'z') ? (char) (c - 'a' + 'A') : c));
+        }
+
+        /**
+         * Adds a step that inserts a space before every uppercase letter, as in
+         * {@link StrsCodeWars#camelCase(String)}.
+         *
+         * @return This builder.
+         */
+        public Builder camelCase() {
+            return add((c, next) -> {
+                if (c >= 'A' && c <= 'Z')
+                    next.put(' ');
+                next.put(c);
+            });
+        }
+
+        /**
+         * Adds a step that splits camel case words only at a lowercase to uppercase
+         * boundary, so an input starting with an uppercase letter or containing an
+         * acronym gets no extra spaces. This step keeps the previous character as
+         * state.
+         *
+         * @return This builder.
+         */
+        public Builder camelCaseWords() {
+            return addStateful(CamelCaseWords::new);
+        }
+
+        /**
+         * Creates the pipeline.
+         *
+         * @return A new pipeline with the steps added so far.
+         */
+        public TextPipeline build() {
+            return new TextPipeline(steps);
+        }
+    }
+
+}
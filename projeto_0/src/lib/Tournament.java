@@ -0,0 +1,232 @@
+package lib;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulates many games of Rock-Paper-Scissors between two strategies, with the
+ * rules of {@link GamesCodeWars#rps}.
+ *
+ * The games are split into a fork/join tree. Every task gets its own
+ * {@link SplittableRandom}, split from its parent before it is forked, so the
+ * results depend only on the seed and not on how the tasks are scheduled. Each
+ * leaf counts its games in local variables and adds them once to striped
+ * {@link LongAdder} totals.
+ *
+ * <pre>{@code
+ * Tournament.Result result = Tournament.play(Tournament.Strategy.uniform(),
+ *         Tournament.Strategy.always(Move.ROCK), 1_000_000_000L, 42);
+ * }</pre>
+ */
+public final class Tournament {
+
+    /**
+     * Maximum number of games a task simulates without splitting.
+     */
+    static final long LEAF = 1 << 20;
+
+    private Tournament() {
+    }
+
+    /**
+     * Chooses a move for each game.
+     */
+    @FunctionalInterface
+    public interface Strategy {
+
+        /**
+         * Chooses the next move.
+         *
+         * @param random The random generator of the calling task. It is never
+         *               shared between threads.
+         * @return The ordinal of the move: 0 for rock, 1 for paper or 2 for
+         *         scissors.
+         */
+        int move(SplittableRandom random);
+
+        /**
+         * Returns a strategy that plays every move with the same probability.
+         *
+         * @return The strategy.
+         */
+        static Strategy uniform() {
+            return random -> random.nextInt(3);
+        }
+
+        /**
+         * Returns a strategy that always plays the same move.
+         *
+         * @param move The move to be played.
+         * @return The strategy.
+         */
+        static Strategy always(Move move) {
+            int code = move.ordinal();
+            return random -> code;
+        }
+
+        /**
+         * Returns a strategy that plays each move with a probability proportional
+         * to its weight.
+         *
+         * @param rock     The weight of rock.
+         * @param paper    The weight of paper.
+         * @param scissors The weight of scissors.
+         * @return The strategy.
+         * @throws IllegalArgumentException If a weight is negative or all of them
+         *                                  are zero.
+         */
+        static Strategy weighted(double rock, double paper, double scissors) {
+            if (!(rock >= 0 && paper >= 0 && scissors >= 0) || rock + paper + scissors <= 0)
+                throw new IllegalArgumentException("Weights must be non-negative and not all zero.");
+
+            double total = rock + paper + scissors;
+            double p0 = rock / total;
+            double p1 = (rock + paper) / total;
+            return random -> {
+                double r = random.nextDouble();
+                return r < p0 ? 0 : r < p1 ? 1 : 2;
+            };
+        }
+    }
+
+    /**
+     * Plays a number of games between two strategies in the common fork/join
+     * pool.
+     *
+     * @param p1    The strategy of Player 1.
+     * @param p2    The strategy of Player 2.
+     * @param games The number of games.
+     * @param seed  The seed of the random generators.
+     * @return How many games each player won and how many were draws.
+     * @throws IllegalArgumentException If 'games' is negative.
+     */
+    public static Result play(Strategy p1, Strategy p2, long games, long seed) {
+        return play(p1, p2, games, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plays a number of games between two strategies in a given pool.
+     *
+     * @param p1    The strategy of Player 1.
+     * @param p2    The strategy of Player 2.
+     * @param games The number of games.
+     * @param seed  The seed of the random generators.
+     * @param pool  The pool that runs the games.
+     * @return How many games each player won and how many were draws.
+     * @throws IllegalArgumentException If 'games' is negative.
+     */
+    public static Result play(Strategy p1, Strategy p2, long games, long seed, ForkJoinPool pool) {
+        if (games < 0)
+            throw new IllegalArgumentException("The number of games must not be negative.");
+
+        LongAdder[] totals = { new LongAdder(), new LongAdder(), new LongAdder() };
+        pool.invoke(new Games(Objects.requireNonNull(p1), Objects.requireNonNull(p2), games,
+                new SplittableRandom(seed), totals));
+        return new Result(totals[0].sum(), totals[1].sum(), totals[2].sum());
+    }
+
+    /**
+     * A range of games, split in halves until it is small enough to simulate.
+     */
+    private static final class Games extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Strategy p1;
+        private final Strategy p2;
+        private final long games;
+        private final SplittableRandom random;
+        private final LongAdder[] totals;
+
+        Games(Strategy p1, Strategy p2, long games, SplittableRandom random, LongAdder[] totals) {
+            this.p1 = p1;
+            this.p2 = p2;
+            this.games = games;
+            this.random = random;
+            this.totals = totals;
+        }
+
+        @Override
+        protected void compute() {
+            if (games > LEAF) {
+                long half = games / 2;
+                invokeAll(new Games(p1, p2, half, random.split(), totals),
+                        new Games(p1, p2, games - half, random, totals));
+                return;
+            }
+
+            long[] counts = new long[3];
+            for (long g = 0; g < games; g++) {
+                counts[Move.outcome(p1.move(random), p2.move(random))]++;
+            }
+            for (int o = 0; o < counts.length; o++) {
+                totals[o].add(counts[o]);
+            }
+        }
+    }
+
+    /**
+     * The totals of a tournament.
+     */
+    public static final class Result {
+        private final long[] counts;
+
+        private Result(long player1Wins, long player2Wins, long draws) {
+            this.counts = new long[] { player1Wins, player2Wins, draws };
+        }
+
+        /**
+         * Returns how many games had a given outcome.
+         *
+         * @param outcome The outcome to count.
+         * @return The number of games with that outcome.
+         */
+        public long count(Move.Outcome outcome) {
+            return counts[outcome.ordinal()];
+        }
+
+        /**
+         * Returns the number of games Player 1 won.
+         *
+         * @return The wins of Player 1.
+         */
+        public long player1Wins() {
+            return counts[0];
+        }
+
+        /**
+         * Returns the number of games Player 2 won.
+         *
+         * @return The wins of Player 2.
+         */
+        public long player2Wins() {
+            return counts[1];
+        }
+
+        /**
+         * Returns the number of draws.
+         *
+         * @return The draws.
+         */
+        public long draws() {
+            return counts[2];
+        }
+
+        /**
+         * Returns the number of games played.
+         *
+         * @return The sum of wins and draws.
+         */
+        public long games() {
+            return counts[0] + counts[1] + counts[2];
+        }
+
+        @Override
+        public String toString() {
+            return "Player 1 won " + counts[0] + ", Player 2 won " + counts[1] + ", draws " + counts[2];
+        }
+    }
+
+}
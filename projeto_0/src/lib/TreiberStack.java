@@ -0,0 +1,205 @@
+package lib;
+
+import java.util.EmptyStackException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A lock-free stack for any number of threads, with the push/pop/peek/isEmpty/
+ * forEach surface of {@link java.util.Stack}. Use {@link ArrayStack} when only
+ * one thread uses the stack.
+ *
+ * The stack is a linked list whose top is replaced with a CAS (a Treiber
+ * stack). When that CAS fails because of contention, the thread backs off to an
+ * elimination array instead of retrying at once: a push leaves its node in a
+ * random slot for a while, and a pop that finds a node there takes it. A push
+ * and a pop that meet this way cancel out without touching the top at all.
+ *
+ * Every node records the depth of the stack below it, so {@link #size()} is
+ * O(1). Iteration works on a snapshot and goes from the bottom to the top, as in
+ * {@link java.util.Stack}. Null elements are not allowed.
+ *
+ * @param <E> The type of the elements.
+ */
+public final class TreiberStack<E> implements Iterable<E> {
+
+    /**
+     * Number of spins a push waits in the elimination array for a pop.
+     */
+    static final int SPINS = 64;
+
+    private static final int SLOTS = Math.max(2, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()));
+
+    private static final class Node<E> {
+        final E item;
+        Node<E> next;
+        int size;
+
+        Node(E item) {
+            this.item = item;
+        }
+    }
+
+    private final AtomicReference<Node<E>> top = new AtomicReference<>();
+    private final AtomicReferenceArray<Node<E>> elimination = new AtomicReferenceArray<>(SLOTS);
+
+    /**
+     * Pushes an element onto the top of the stack.
+     *
+     * @param item The element to push.
+     * @return The element.
+     * @throws NullPointerException If the element is null.
+     */
+    public E push(E item) {
+        Node<E> node = new Node<>(Objects.requireNonNull(item));
+
+        while (true) {
+            Node<E> current = top.get();
+            node.next = current;
+            node.size = current == null ? 1 : current.size + 1;
+            if (top.compareAndSet(current, node))
+                return item;
+            if (eliminatePush(node))
+                return item;
+        }
+    }
+
+    /**
+     * Offers the node to a concurrent pop through a random slot.
+     *
+     * @return true if a pop took the node.
+     */
+    private boolean eliminatePush(Node<E> node) {
+        int slot = ThreadLocalRandom.current().nextInt(SLOTS);
+        if (!elimination.compareAndSet(slot, null, node))
+            return false;
+
+        for (int i = 0; i < SPINS; i++) {
+            if (elimination.get(slot) != node)
+                return true;
+            Thread.onSpinWait();
+        }
+        return !elimination.compareAndSet(slot, node, null);
+    }
+
+    /**
+     * Removes the element at the top of the stack.
+     *
+     * @return The removed element.
+     * @throws EmptyStackException If the stack is empty.
+     */
+    public E pop() {
+        E item = poll();
+        if (item == null)
+            throw new EmptyStackException();
+        return item;
+    }
+
+    /**
+     * Removes the element at the top of the stack, if there is one.
+     *
+     * @return The removed element, or null if the stack is empty.
+     */
+    public E poll() {
+        while (true) {
+            Node<E> current = top.get();
+            if (current == null)
+                return null;
+            if (top.compareAndSet(current, current.next))
+                return current.item;
+
+            int slot = ThreadLocalRandom.current().nextInt(SLOTS);
+            Node<E> offered = elimination.get(slot);
+            if (offered != null && elimination.compareAndSet(slot, offered, null))
+                return offered.item;
+        }
+    }
+
+    /**
+     * Returns the element at the top of the stack without removing it.
+     *
+     * @return The top element.
+     * @throws EmptyStackException If the stack is empty.
+     */
+    public E peek() {
+        Node<E> current = top.get();
+        if (current == null)
+            throw new EmptyStackException();
+        return current.item;
+    }
+
+    /**
+     * Checks whether the stack has no elements.
+     *
+     * @return true if the stack is empty.
+     */
+    public boolean isEmpty() {
+        return top.get() == null;
+    }
+
+    /**
+     * Returns the number of elements in the stack.
+     *
+     * @return The size, which may be stale when other threads are active.
+     */
+    public int size() {
+        Node<E> current = top.get();
+        return current == null ? 0 : current.size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E[] snapshot() {
+        Node<E> current = top.get();
+        Object[] items = new Object[current == null ? 0 : current.size];
+        for (int i = items.length - 1; i >= 0; i--, current = current.next) {
+            items[i] = current.item;
+        }
+        return (E[]) items;
+    }
+
+    /**
+     * Calls 'action' with every element of a snapshot of the stack, from the
+     * bottom to the top.
+     *
+     * @param action The action to run for each element.
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action);
+        for (E item : snapshot()) {
+            action.accept(item);
+        }
+    }
+
+    /**
+     * Returns an iterator over a snapshot of the stack, from the bottom to the
+     * top.
+     *
+     * @return An iterator that does not support {@link Iterator#remove()}.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        E[] items = snapshot();
+        return new Iterator<E>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < items.length;
+            }
+
+            @Override
+            public E next() {
+                if (next >= items.length)
+                    throw new NoSuchElementException();
+                return items[next++];
+            }
+        };
+    }
+
+}
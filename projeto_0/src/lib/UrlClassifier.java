@@ -0,0 +1,350 @@
+package lib;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Classifies URLs by prefix rules, generalizing {@link StrsCodeWars#safeUrl}.
+ *
+ * Each rule maps a prefix to a class, and a URL gets the class of the longest
+ * prefix it starts with. The rules are compiled into a byte-level automaton: a
+ * trie whose transitions are stored in one flat table, with one column per byte
+ * used by the rules and one shared column for every other byte. Matching a URL
+ * is a single pass over its UTF-8 bytes that stops as soon as no rule can
+ * match.
+ *
+ * Files with one URL per line are classified through memory-mapped chunks, so no
+ * {@link String} is created per URL. A classifier is immutable and can be
+ * shared between threads.
+ */
+public final class UrlClassifier {
+
+    /**
+     * Number of bytes each parallel task classifies.
+     */
+    static final int CHUNK = 1 << 24;
+
+    private static final int DEAD = 0;
+    private static final int ROOT = 1;
+
+    private static final UrlClassifier SAFE_URL = builder()
+            .rule("www.", "Invalid URL")
+            .rule("https://", "URL is safe")
+            .otherwise("URL is not safe")
+            .build();
+
+    /**
+     * Receives the class of each line of a file.
+     */
+    @FunctionalInterface
+    public interface LineConsumer {
+        void accept(long line, int classId);
+    }
+
+    private final List<String> classes;
+    private final int[] columns;
+    private final int width;
+    private final int[] next;
+    private final int[] accept;
+    private final int depth;
+
+    private UrlClassifier(List<String> classes, int[] columns, int width, int[] next, int[] accept, int depth) {
+        this.classes = classes;
+        this.columns = columns;
+        this.width = width;
+        this.next = next;
+        this.accept = accept;
+        this.depth = depth;
+    }
+
+    /**
+     * Creates a builder for a new classifier.
+     *
+     * @return An empty builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the rules of {@link StrsCodeWars#safeUrl}: "www." is an invalid
+     * URL, "https://" is safe and anything else is not safe.
+     *
+     * @return The shared classifier for those rules.
+     */
+    public static UrlClassifier safeUrl() {
+        return SAFE_URL;
+    }
+
+    /**
+     * Returns the names of the classes, indexed by class id.
+     *
+     * @return An unmodifiable list of class names.
+     */
+    public List<String> classes() {
+        return classes;
+    }
+
+    /**
+     * Classifies one URL.
+     *
+     * @param url The URL to be classified.
+     * @return The class of the longest matching prefix, or null if no rule
+     *         matches and there is no default class.
+     */
+    public String classify(CharSequence url) {
+        int id = classId(url);
+        return id < 0 ? null : classes.get(id);
+    }
+
+    /**
+     * Classifies one URL.
+     *
+     * @param url The URL to be classified.
+     * @return The id of the class of the longest matching prefix, or -1 if no
+     *         rule matches and there is no default class.
+     */
+    public int classId(CharSequence url) {
+        int state = ROOT;
+        int best = accept[ROOT];
+
+        for (int i = 0; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c >= 0x80) {
+                byte[] rest = url.subSequence(i, url.length()).toString().getBytes(StandardCharsets.UTF_8);
+                return match(state, best, rest, 0, rest.length);
+            }
+
+            state = next[state * width + columns[c]];
+            if (state == DEAD)
+                return best;
+            if (accept[state] >= 0)
+                best = accept[state];
+        }
+        return best;
+    }
+
+    /**
+     * Classifies the URL encoded as UTF-8 in {@code url[from, to)}.
+     *
+     * @param url  The bytes of the URL.
+     * @param from The first byte, inclusive.
+     * @param to   The last byte, exclusive.
+     * @return The id of the class of the longest matching prefix, or -1 if no
+     *         rule matches and there is no default class.
+     */
+    public int classId(byte[] url, int from, int to) {
+        return match(ROOT, accept[ROOT], url, from, to);
+    }
+
+    private int match(int state, int best, byte[] url, int from, int to) {
+        for (int i = from; i < to; i++) {
+            state = next[state * width + columns[url[i] & 0xFF]];
+            if (state == DEAD)
+                return best;
+            if (accept[state] >= 0)
+                best = accept[state];
+        }
+        return best;
+    }
+
+    /**
+     * Classifies the URL that starts at 'from' in a buffer. It ends at the first
+     * byte no rule expects, such as the '\n' of its line, or at 'limit'.
+     */
+    private int match(ByteBuffer buf, int from, int limit) {
+        int state = ROOT;
+        int best = accept[ROOT];
+
+        for (int i = from; i < limit; i++) {
+            state = next[state * width + columns[buf.get(i) & 0xFF]];
+            if (state == DEAD)
+                return best;
+            if (accept[state] >= 0)
+                best = accept[state];
+        }
+        return best;
+    }
+
+    /**
+     * Calls 'consumer' with the class of every line of a newline-delimited file,
+     * in file order.
+     *
+     * @param file     The file with one URL per line.
+     * @param consumer Receives the line index, starting at 0, and its class id.
+     * @throws IOException If the file cannot be read.
+     */
+    public void forEach(Path file, LineConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long line = 0;
+            for (long start = 0; start < size; start += CHUNK) {
+                line = classifyChunk(channel, size, start, line, consumer, null);
+            }
+        }
+    }
+
+    /**
+     * Counts how many lines of a newline-delimited file fall in each class. The
+     * file is split on line boundaries into chunks that are classified in
+     * parallel.
+     *
+     * @param file The file with one URL per line.
+     * @return The number of lines of each class, indexed by class id. Lines that
+     *         match no rule and have no default class are counted at index
+     *         {@code classes().size()}.
+     * @throws IOException If the file cannot be read.
+     */
+    public long[] count(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) ((size + CHUNK - 1) / CHUNK);
+
+            return IntStream.range(0, chunks).parallel()
+                    .mapToObj(c -> {
+                        long[] counts = new long[classes.size() + 1];
+                        try {
+                            classifyChunk(channel, size, (long) c * CHUNK, 0, null, counts);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return counts;
+                    })
+                    .reduce(new long[classes.size() + 1], UrlClassifier::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long[] add(long[] a, long[] b) {
+        long[] sum = new long[a.length];
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Classifies the lines that start in {@code [start, start + CHUNK)}. Only the
+     * first bytes of a line can match a rule, so the chunk is mapped with just
+     * enough extra bytes for the longest rule; the rest of a line that continues
+     * past the chunk is never read.
+     *
+     * @return The index of the line after the last one classified.
+     */
+    private long classifyChunk(FileChannel channel, long size, long start, long line, LineConsumer consumer,
+            long[] counts) throws IOException {
+        return line + FileChunks.forEachLine(channel, size, start, CHUNK, depth + 1, (index, buf, from, to) -> {
+            int id = match(buf, from, to);
+            if (consumer != null)
+                consumer.accept(line + index, id);
+            if (counts != null)
+                counts[id < 0 ? counts.length - 1 : id]++;
+        });
+    }
+
+    /**
+     * Builds a {@link UrlClassifier}.
+     */
+    public static final class Builder {
+        private final List<byte[]> prefixes = new ArrayList<>();
+        private final List<String> ruleClasses = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a rule.
+         *
+         * @param prefix    The prefix a URL must start with. It is matched
+         *                  byte by byte, as UTF-8, so it is case-sensitive.
+         * @param className The class of the URLs that start with 'prefix'.
+         * @return This builder.
+         * @throws IllegalArgumentException If the prefix has a line break or
+         *                                  was already added.
+         */
+        public Builder rule(String prefix, String className) {
+            byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+            if (prefix.indexOf('\n') >= 0)
+                throw new IllegalArgumentException("A prefix cannot contain a line break.");
+            for (byte[] other : prefixes) {
+                if (Arrays.equals(other, bytes))
+                    throw new IllegalArgumentException("Duplicate rule for prefix '" + prefix + "'.");
+            }
+
+            prefixes.add(bytes);
+            ruleClasses.add(className);
+            return this;
+        }
+
+        /**
+         * Sets the class of the URLs that match no rule. This is the same as a
+         * rule with an empty prefix.
+         *
+         * @param className The default class.
+         * @return This builder.
+         */
+        public Builder otherwise(String className) {
+            return rule("", className);
+        }
+
+        /**
+         * Compiles the rules.
+         *
+         * @return A new classifier.
+         */
+        public UrlClassifier build() {
+            List<String> classes = new ArrayList<>();
+            for (String name : ruleClasses) {
+                if (!classes.contains(name))
+                    classes.add(name);
+            }
+
+            int[] columns = new int[256];
+            int width = 1;
+            int depth = 0;
+            for (byte[] prefix : prefixes) {
+                for (byte b : prefix) {
+                    if (columns[b & 0xFF] == 0)
+                        columns[b & 0xFF] = width++;
+                }
+                depth = Math.max(depth, prefix.length);
+            }
+
+            int[] next = new int[2 * width];
+            int[] accept = { -1, -1 };
+            int states = 2;
+
+            for (int r = 0; r < prefixes.size(); r++) {
+                int state = ROOT;
+                for (byte b : prefixes.get(r)) {
+                    int slot = state * width + columns[b & 0xFF];
+                    if (next[slot] == DEAD) {
+                        if (states == accept.length) {
+                            accept = Arrays.copyOf(accept, states * 2);
+                            next = Arrays.copyOf(next, states * 2 * width);
+                        }
+                        accept[states] = -1;
+                        next[slot] = states++;
+                    }
+                    state = next[slot];
+                }
+                accept[state] = classes.indexOf(ruleClasses.get(r));
+            }
+
+            return new UrlClassifier(Collections.unmodifiableList(classes), columns, width,
+                    Arrays.copyOf(next, states * width), Arrays.copyOf(accept, states), depth);
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+package lib;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes UTF-8 one sequence at a time, for the classes that scan memory-mapped
+ * files without building a {@link String}.
+ *
+ * Malformed input never yields a surrogate or a code point above U+10FFFF:
+ * every maximal ill-formed subpart becomes one U+FFFD, as the Unicode standard
+ * recommends. That covers stray continuation bytes, the lead bytes C0, C1 and
+ * F5-FF, overlong forms, encoded surrogates, code points above U+10FFFF and
+ * sequences cut short by the end of the input. Well-formed input decodes
+ * exactly as with {@link java.nio.charset.StandardCharsets#UTF_8}, whose
+ * decoder sometimes replaces a longer run of malformed bytes with a single
+ * U+FFFD.
+ *
+ * {@link #decode} returns the code point and the number of bytes it took packed
+ * in one int, so the callers' loops allocate nothing; {@link #codePoint(int)}
+ * and {@link #length(int)} unpack it.
+ */
+final class Utf8Decoder {
+
+    static final int REPLACEMENT = 0xFFFD;
+
+    private static final int LENGTH_SHIFT = 21;
+
+    private Utf8Decoder() {
+    }
+
+    /**
+     * Decodes the sequence that starts at 'i'.
+     *
+     * @param buf   The UTF-8 bytes.
+     * @param i     The position of the first byte of the sequence.
+     * @param limit The end of the input; a sequence that runs past it is
+     *              malformed.
+     * @return The code point, or U+FFFD, packed with the number of bytes read.
+     */
+    static int decode(ByteBuffer buf, int i, int limit) {
+        int b = buf.get(i) & 0xFF;
+        if (b < 0x80)
+            return b | 1 << LENGTH_SHIFT;
+
+        int len, cp;
+        int lo = 0x80, hi = 0xBF;
+        if (b < 0xC2) {
+            return REPLACEMENT | 1 << LENGTH_SHIFT;
+        } else if (b < 0xE0) {
+            len = 2;
+            cp = b & 0x1F;
+        } else if (b < 0xF0) {
+            len = 3;
+            cp = b & 0x0F;
+            if (b == 0xE0)
+                lo = 0xA0; // shorter forms are overlong
+            else if (b == 0xED)
+                hi = 0x9F; // ED A0-BF encodes a surrogate
+        } else if (b < 0xF5) {
+            len = 4;
+            cp = b & 0x07;
+            if (b == 0xF0)
+                lo = 0x90; // shorter forms are overlong
+            else if (b == 0xF4)
+                hi = 0x8F; // anything higher is above U+10FFFF
+        } else {
+            return REPLACEMENT | 1 << LENGTH_SHIFT;
+        }
+
+        for (int k = 1; k < len; k++) {
+            if (i + k >= limit)
+                return REPLACEMENT | k << LENGTH_SHIFT;
+            int c = buf.get(i + k) & 0xFF;
+            if (c < lo || c > hi)
+                return REPLACEMENT | k << LENGTH_SHIFT;
+            cp = cp << 6 | c & 0x3F;
+            lo = 0x80;
+            hi = 0xBF;
+        }
+        return cp | len << LENGTH_SHIFT;
+    }
+
+    /**
+     * Returns the code point of a result of {@link #decode}.
+     *
+     * @param decoded The packed result.
+     * @return The code point, U+FFFD for malformed input.
+     */
+    static int codePoint(int decoded) {
+        return decoded & ((1 << LENGTH_SHIFT) - 1);
+    }
+
+    /**
+     * Returns the number of bytes of a result of {@link #decode}.
+     *
+     * @param decoded The packed result.
+     * @return The length, from 1 to 4.
+     */
+    static int length(int decoded) {
+        return decoded >>> LENGTH_SHIFT;
+    }
+
+    /**
+     * Decodes {@code buf[from, to)} into a String, with the same replacements as
+     * {@link #decode}.
+     *
+     * @param buf  The UTF-8 bytes.
+     * @param from The first byte, inclusive.
+     * @param to   The last byte, exclusive.
+     * @return The decoded text.
+     */
+    static String toString(ByteBuffer buf, int from, int to) {
+        StringBuilder text = new StringBuilder(to - from);
+        for (int i = from; i < to;) {
+            int decoded = decode(buf, i, to);
+            text.appendCodePoint(codePoint(decoded));
+            i += length(decoded);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Finds where decoding resumes at or after 'start' when the input is
+     * decoded from its beginning. Every byte that is not a continuation byte
+     * starts a sequence, so only the last such byte of the three before 'start'
+     * can have a sequence that reaches past it.
+     *
+     * @param buf   The UTF-8 bytes, with up to three bytes before 'start'.
+     * @param from  The first byte of 'buf' that may be looked at.
+     * @param start The position decoding would like to start at.
+     * @param limit The end of the input.
+     * @return 'start', or the end of the sequence that covers it.
+     */
+    static int resume(ByteBuffer buf, int from, int start, int limit) {
+        for (int p = start - 1; p >= Math.max(from, start - 3); p--) {
+            if ((buf.get(p) & 0xC0) != 0x80)
+                return Math.max(start, p + length(decode(buf, p, limit)));
+        }
+        return start;
+    }
+
+}
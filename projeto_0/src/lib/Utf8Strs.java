@@ -0,0 +1,451 @@
+package lib;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Byte-level versions of the {@link StrsCodeWars} string transforms, working
+ * directly on UTF-8 input and output so text read off the network never has to
+ * be decoded into a {@link String}.
+ *
+ * Each array method transforms {@code src[from, to)} into {@code dst} starting
+ * at {@code offset} and returns the number of bytes written. The output is never
+ * longer than the input. Except for {@link #reverse}, {@code dst} may be
+ * {@code src} itself as long as {@code offset <= from}.
+ *
+ * The loops read 8 bytes at a time as a {@code long} and handle all 8 at once
+ * when they are plain ASCII (SWAR: SIMD within a register). Multibyte UTF-8
+ * sequences fall back to one sequence per step.
+ */
+public final class Utf8Strs {
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH = 0x8080808080808080L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+
+    /**
+     * Size of the chunks the buffer methods copy direct buffers in.
+     */
+    static final int SCRATCH = 1 << 13;
+
+    private static final ThreadLocal<byte[]> SCRATCH_BUFFERS = ThreadLocal.withInitial(() -> new byte[2 * SCRATCH]);
+
+    private Utf8Strs() {
+    }
+
+    /**
+     * A transform from a byte range into an output array.
+     */
+    @FunctionalInterface
+    interface Transform {
+        int apply(byte[] src, int from, int to, byte[] dst, int offset);
+    }
+
+    /**
+     * Returns a mask with 0x80 set in every byte of 'w' equal to 'b', and nothing
+     * else.
+     */
+    static long eqMask(long w, byte b) {
+        long t = w ^ (ONES * (b & 0xFF));
+        return ~(((t & LOW7) + LOW7) | t | LOW7);
+    }
+
+    private static void check(byte[] src, int from, int to, byte[] dst, int offset) {
+        Objects.checkFromToIndex(from, to, src.length);
+        Objects.checkFromIndexSize(offset, to - from, dst.length);
+    }
+
+    /**
+     * Returns the length of the UTF-8 sequence starting with 'lead', clamped to
+     * the bytes that are left. Invalid lead bytes count as one byte.
+     */
+    private static int sequenceLength(byte lead, int left) {
+        int len = (lead & 0xE0) == 0xC0 ? 2 : (lead & 0xF0) == 0xE0 ? 3 : (lead & 0xF8) == 0xF0 ? 4 : 1;
+        return Math.min(len, left);
+    }
+
+    /**
+     * Byte version of {@link StrsCodeWars#MakeUpperCase(String)}: converts 'a' to
+     * 'z' into 'A' to 'Z' and copies every other byte unchanged.
+     *
+     * @param src    The UTF-8 input.
+     * @param from   The first input byte, inclusive.
+     * @param to     The last input byte, exclusive.
+     * @param dst    The array that receives the output.
+     * @param offset The position in 'dst' where the output starts.
+     * @return The number of bytes written.
+     */
+    public static int makeUpperCase(byte[] src, int from, int to, byte[] dst, int offset) {
+        check(src, from, to, dst, offset);
+        int i = from, o = offset;
+
+        for (; i + 8 <= to; i += 8, o += 8) {
+            long w = (long) LONG.get(src, i);
+            long heptets = w & LOW7;
+            long geA = heptets + ONES * (0x80 - 'a');
+            long gtZ = heptets + ONES * (0x80 - 'z' - 1);
+            long lower = geA & ~gtZ & ~w & HIGH;
+            LONG.set(dst, o, w ^ (lower >>> 2));
+        }
+
+        for (; i < to; i++, o++) {
+            byte b = src[i];
+            dst[o] = (b >= 'a' && b <= 'z') ? (byte) (b - 'a' + 'A') : b;
+        }
+        return o - offset;
+    }
+
+    /**
+     * Byte version of {@link StrsCodeWars#noSpace(String)}: drops every ' '.
+     *
+     * @param src    The UTF-8 input.
+     * @param from   The first input byte, inclusive.
+     * @param to     The last input byte, exclusive.
+     * @param dst    The array that receives the output.
+     * @param offset The position in 'dst' where the output starts.
+     * @return The number of bytes written.
+     */
+    public static int noSpace(byte[] src, int from, int to, byte[] dst, int offset) {
+        return removeAll(src, from, to, dst, offset, (byte) ' ');
+    }
+
+    /**
+     * Byte version of {@link StrsCodeWars#removeExclamationMarks(String)}: drops
+     * every '!'.
+     *
+     * @param src    The UTF-8 input.
+     * @param from   The first input byte, inclusive.
+     * @param to     The last input byte, exclusive.
+     * @param dst    The array that receives the output.
+     * @param offset The position in 'dst' where the output starts.
+     * @return The number of bytes written.
+     */
+    public static int removeExclamationMarks(byte[] src, int from, int to, byte[] dst, int offset) {
+        return removeAll(src, from, to, dst, offset, (byte) '!');
+    }
+
+    /**
+     * Copies the input dropping every occurrence of an ASCII byte. ASCII bytes
+     * never occur inside a multibyte UTF-8 sequence, so no decoding is needed.
+     */
+    private static int removeAll(byte[] src, int from, int to, byte[] dst, int offset, byte removed) {
+        check(src, from, to, dst, offset);
+        int i = from, o = offset;
+
+        while (i + 8 <= to) {
+            long w = (long) LONG.get(src, i);
+            if (eqMask(w, removed) == 0) {
+                LONG.set(dst, o, w);
+                i += 8;
+                o += 8;
+                continue;
+            }
+
+            for (int end = i + 8; i < end; i++) {
+                if (src[i] != removed)
+                    dst[o++] = src[i];
+            }
+        }
+
+        for (; i < to; i++) {
+            if (src[i] != removed)
+                dst[o++] = src[i];
+        }
+        return o - offset;
+    }
+
+    /**
+     * Byte version of {@link StrsCodeWars#fakeBin(String)}: writes '0' for every
+     * character below '5' and '1' for every other one. As in the String version, a
+     * character outside the Basic Multilingual Plane counts as two chars.
+     *
+     * @param src    The UTF-8 input.
+     * @param from   The first input byte, inclusive.
+     * @param to     The last input byte, exclusive.
+     * @param dst    The array that receives the output.
+     * @param offset The position in 'dst' where the output starts.
+     * @return The number of bytes written.
+     */
+    public static int fakeBin(byte[] src, int from, int to, byte[] dst, int offset) {
+        check(src, from, to, dst, offset);
+        int i = from, o = offset;
+
+        while (i < to) {
+            if (i + 8 <= to) {
+                long w = (long) LONG.get(src, i);
+                if ((w & HIGH) == 0) {
+                    long geFive = (w + ONES * (0x80 - '5')) & HIGH;
+                    LONG.set(dst, o, ONES * '0' | geFive >>> 7);
+                    i += 8;
+                    o += 8;
+                    continue;
+                }
+            }
+
+            byte b = src[i];
+            if (b >= 0) {
+                dst[o++] = (byte) (b < '5' ? '0' : '1');
+                i++;
+            } else {
+                int len = sequenceLength(b, to - i);
+                dst[o++] = '1';
+                if (len == 4)
+                    dst[o++] = '1';
+                i += len;
+            }
+        }
+        return o - offset;
+    }
+
+    /**
+     * Byte version of {@link StrsCodeWars#reverseWords(String)} and
+     * {@link StrsCodeWars#solution(String)}: reverses the order of the characters.
+     * Multibyte sequences are kept intact, so the output is valid UTF-8 and
+     * supplementary characters are not split.
+     *
+     * @param src    The UTF-8 input.
+     * @param from   The first input byte, inclusive.
+     * @param to     The last input byte, exclusive.
+     * @param dst    The array that receives the output. It must not overlap the
+     *               input.
+     * @param offset The position in 'dst' where the output starts.
+     * @return The number of bytes written.
+     */
+    public static int reverse(byte[] src, int from, int to, byte[] dst, int offset) {
+        check(src, from, to, dst, offset);
+        int i = from, o = offset + (to - from);
+
+        while (i < to) {
+            if (i + 8 <= to) {
+                long w = (long) LONG.get(src, i);
+                if ((w & HIGH) == 0) {
+                    o -= 8;
+                    LONG.set(dst, o, Long.reverseBytes(w));
+                    i += 8;
+                    continue;
+                }
+            }
+
+            int len = src[i] >= 0 ? 1 : sequenceLength(src[i], to - i);
+            o -= len;
+            System.arraycopy(src, i, dst, o, len);
+            i += len;
+        }
+        return to - from;
+    }
+
+    /**
+     * In-place version of {@link #reverse(byte[], int, int, byte[], int)}:
+     * reverses the order of the characters of {@code buf[from, to)} without a
+     * second array. Each multibyte sequence is first reversed on its own, so it
+     * comes out in the right order when the whole range is reversed.
+     *
+     * @param buf  The UTF-8 text.
+     * @param from The first byte, inclusive.
+     * @param to   The last byte, exclusive.
+     * @throws IndexOutOfBoundsException If the range is outside the array.
+     */
+    public static void reverseInPlace(byte[] buf, int from, int to) {
+        Objects.checkFromToIndex(from, to, buf.length);
+
+        for (int i = from; i < to;) {
+            if (i + 8 <= to && ((long) LONG.get(buf, i) & HIGH) == 0) {
+                i += 8;
+                continue;
+            }
+
+            int len = buf[i] >= 0 ? 1 : sequenceLength(buf[i], to - i);
+            if (len > 1)
+                swapRange(buf, i, i + len);
+            i += len;
+        }
+        swapRange(buf, from, to);
+    }
+
+    private static void swapRange(byte[] buf, int from, int to) {
+        for (int l = from, r = to - 1; l < r; l++, r--) {
+            byte b = buf[l];
+            buf[l] = buf[r];
+            buf[r] = b;
+        }
+    }
+
+    /**
+     * Byte version of {@link StrsCodeWars#dnaToRna(String)}: replaces every 'T'
+     * with 'U'.
+     *
+     * @param src    The UTF-8 input.
+     * @param from   The first input byte, inclusive.
+     * @param to     The last input byte, exclusive.
+     * @param dst    The array that receives the output.
+     * @param offset The position in 'dst' where the output starts.
+     * @return The number of bytes written.
+     */
+    public static int dnaToRna(byte[] src, int from, int to, byte[] dst, int offset) {
+        check(src, from, to, dst, offset);
+        int i = from, o = offset;
+
+        for (; i + 8 <= to; i += 8, o += 8) {
+            long w = (long) LONG.get(src, i);
+            LONG.set(dst, o, w + (eqMask(w, (byte) 'T') >>> 7));
+        }
+
+        for (; i < to; i++, o++) {
+            dst[o] = src[i] == 'T' ? (byte) 'U' : src[i];
+        }
+        return o - offset;
+    }
+
+    /**
+     * Buffer version of {@link #makeUpperCase(byte[], int, int, byte[], int)}.
+     *
+     * @param src The UTF-8 input, read from its position to its limit.
+     * @param dst The buffer that receives the output at its position.
+     * @return The number of bytes written.
+     * @throws BufferOverflowException If 'dst' has less room than 'src' has bytes.
+     */
+    public static int makeUpperCase(ByteBuffer src, ByteBuffer dst) {
+        return apply(Utf8Strs::makeUpperCase, src, dst);
+    }
+
+    /**
+     * Buffer version of {@link #noSpace(byte[], int, int, byte[], int)}.
+     *
+     * @param src The UTF-8 input, read from its position to its limit.
+     * @param dst The buffer that receives the output at its position.
+     * @return The number of bytes written.
+     * @throws BufferOverflowException If 'dst' has less room than 'src' has bytes.
+     */
+    public static int noSpace(ByteBuffer src, ByteBuffer dst) {
+        return apply(Utf8Strs::noSpace, src, dst);
+    }
+
+    /**
+     * Buffer version of
+     * {@link #removeExclamationMarks(byte[], int, int, byte[], int)}.
+     *
+     * @param src The UTF-8 input, read from its position to its limit.
+     * @param dst The buffer that receives the output at its position.
+     * @return The number of bytes written.
+     * @throws BufferOverflowException If 'dst' has less room than 'src' has bytes.
+     */
+    public static int removeExclamationMarks(ByteBuffer src, ByteBuffer dst) {
+        return apply(Utf8Strs::removeExclamationMarks, src, dst);
+    }
+
+    /**
+     * Buffer version of {@link #fakeBin(byte[], int, int, byte[], int)}.
+     *
+     * @param src The UTF-8 input, read from its position to its limit.
+     * @param dst The buffer that receives the output at its position.
+     * @return The number of bytes written.
+     * @throws BufferOverflowException If 'dst' has less room than 'src' has bytes.
+     */
+    public static int fakeBin(ByteBuffer src, ByteBuffer dst) {
+        return apply(Utf8Strs::fakeBin, src, dst);
+    }
+
+    /**
+     * Buffer version of {@link #reverse(byte[], int, int, byte[], int)}.
+     *
+     * @param src The UTF-8 input, read from its position to its limit.
+     * @param dst The buffer that receives the output at its position.
+     * @return The number of bytes written.
+     * @throws BufferOverflowException If 'dst' has less room than 'src' has bytes.
+     */
+    public static int reverse(ByteBuffer src, ByteBuffer dst) {
+        return apply(Utf8Strs::reverse, src, dst, true);
+    }
+
+    /**
+     * Buffer version of {@link #dnaToRna(byte[], int, int, byte[], int)}.
+     *
+     * @param src The UTF-8 input, read from its position to its limit.
+     * @param dst The buffer that receives the output at its position.
+     * @return The number of bytes written.
+     * @throws BufferOverflowException If 'dst' has less room than 'src' has bytes.
+     */
+    public static int dnaToRna(ByteBuffer src, ByteBuffer dst) {
+        return apply(Utf8Strs::dnaToRna, src, dst);
+    }
+
+    /**
+     * Runs a transform over the remaining bytes of 'src' and advances both
+     * buffers.
+     */
+    static int apply(Transform transform, ByteBuffer src, ByteBuffer dst) {
+        return apply(transform, src, dst, false);
+    }
+
+    /**
+     * Runs a transform over the remaining bytes of 'src' and advances both
+     * buffers. Heap buffers are used in place. Direct buffers go through a
+     * reused per-thread scratch array, {@link #SCRATCH} bytes at a time. Chunks
+     * end on a character boundary, so each chunk transforms the same way it
+     * would inside the whole input. A 'reversed' transform writes each chunk's
+     * output at the far end of the output that is still free.
+     */
+    static int apply(Transform transform, ByteBuffer src, ByteBuffer dst, boolean reversed) {
+        int length = src.remaining();
+        if (dst.remaining() < length)
+            throw new BufferOverflowException();
+
+        if (src.hasArray() && dst.hasArray()) {
+            int written = transform.apply(src.array(), src.arrayOffset() + src.position(),
+                    src.arrayOffset() + src.limit(), dst.array(), dst.arrayOffset() + dst.position());
+            src.position(src.limit());
+            dst.position(dst.position() + written);
+            return written;
+        }
+
+        byte[] scratch = SCRATCH_BUFFERS.get();
+        int start = dst.position();
+        int written = 0;
+        while (src.hasRemaining()) {
+            int n = Math.min(SCRATCH, src.remaining());
+            src.get(scratch, 0, n);
+            if (src.hasRemaining()) {
+                int cut = lastBoundary(scratch, n);
+                src.position(src.position() - (n - cut));
+                n = cut;
+            }
+
+            int out = transform.apply(scratch, 0, n, scratch, SCRATCH);
+            if (reversed)
+                dst.put(start + length - written - out, scratch, SCRATCH, out);
+            else
+                dst.put(scratch, SCRATCH, out);
+            written += out;
+        }
+        if (reversed)
+            dst.position(start + written);
+        return written;
+    }
+
+    /**
+     * Returns the end of the last whole UTF-8 sequence in {@code buf[0, n)},
+     * splitting the bytes into sequences the same way the transforms do.
+     */
+    private static int lastBoundary(byte[] buf, int n) {
+        int i = 0;
+        while (i < n) {
+            if (i + 8 <= n && ((long) LONG.get(buf, i) & HIGH) == 0) {
+                i += 8;
+                continue;
+            }
+            int len = buf[i] >= 0 ? 1 : sequenceLength(buf[i], 4);
+            if (i + len > n)
+                return i;
+            i += len;
+        }
+        return n;
+    }
+
+}
@@ -0,0 +1,5 @@
+package testes_processo_seletivo;
+
+interface AdvancedArithmetic {
+    public abstract int divisorSum(int input);
+}
@@ -0,0 +1,79 @@
+package testes_processo_seletivo;
+
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed divisor sums for every number up to a limit.
+ *
+ * The table is filled by a segmented sieve: each segment of the range adds,
+ * for every d up to sqrt(n), both d and n / d to the multiples of d it owns.
+ * Segments are independent, so they are built in parallel. Lookups inside the
+ * limit are O(1); larger inputs fall back to {@link MyCalculator#divisorSum(int)}.
+ * The table is an {@link AdvancedArithmetic}, so it can stand in for
+ * {@link MyCalculator}.
+ */
+public class DivisorSumTable implements AdvancedArithmetic {
+
+    static final int SEGMENT = 1 << 18;
+
+    private static final MyCalculator FALLBACK = new MyCalculator();
+
+    private final int[] sigma;
+
+    /**
+     * Builds the table for every number from 1 to 'limit'.
+     *
+     * @param limit The largest number with a precomputed divisor sum. The sums
+     *              must fit in an int, which holds for any limit up to 10^8.
+     * @throws IllegalArgumentException If 'limit' is negative.
+     */
+    public DivisorSumTable(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative.");
+        }
+        sigma = new int[limit + 1];
+
+        int segments = (limit + SEGMENT) / SEGMENT;
+        IntStream.range(0, segments).parallel().forEach(s -> {
+            int lo = Math.max(1, s * SEGMENT);
+            int hi = (int) Math.min((long) limit + 1, (long) (s + 1) * SEGMENT);
+            fill(lo, hi);
+        });
+    }
+
+    private void fill(int lo, int hi) {
+        for (int d = 1; (long) d * d < hi; d++) {
+            long first = Math.max((long) d * d, (lo + d - 1L) / d * d);
+
+            for (long m = first; m < hi; m += d) {
+                int k = (int) (m / d);
+                sigma[(int) m] += (k == d) ? d : d + k;
+            }
+
+        }
+    }
+
+    /**
+     * Returns the largest number with a precomputed divisor sum.
+     *
+     * @return The limit the table was built with.
+     */
+    public int limit() {
+        return sigma.length - 1;
+    }
+
+    /**
+     * Returns the sum of the divisors of the input, reading it from the table when
+     * the input is inside the limit.
+     *
+     * @param input The number whose divisors are summed.
+     * @return The sum of the divisors of 'input', or 0 if it is not positive.
+     */
+    @Override
+    public int divisorSum(int input) {
+        if (input < 1)
+            return 0;
+        return input < sigma.length ? sigma[input] : FALLBACK.divisorSum(input);
+    }
+
+}
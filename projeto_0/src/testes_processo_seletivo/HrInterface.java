@@ -2,25 +2,6 @@ package testes_processo_seletivo;
 
 import java.util.Scanner;
 
-interface AdvancedArithmetic {
-    public abstract int divisorSum(int input);
-}
-
-class MyCalculator implements AdvancedArithmetic {
-    public int divisorSum(int input) {
-        int a = 0;
-
-        for (int i = 1; i <= input; i++) {
-            if (input % i == 0) {
-                a += i;
-            }
-
-        }
-        return a;
-    }
-
-}
-
 public class HrInterface {
     static Scanner in = new Scanner(System.in);
 
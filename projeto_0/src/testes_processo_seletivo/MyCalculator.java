@@ -0,0 +1,19 @@
+package testes_processo_seletivo;
+
+class MyCalculator implements AdvancedArithmetic {
+    public int divisorSum(int input) {
+        int a = 0;
+
+        // divisors come in pairs (i, input / i), so stopping at sqrt(input) is enough
+        for (int i = 1; (long) i * i <= input; i++) {
+            if (input % i == 0) {
+                a += i;
+                if (input / i != i)
+                    a += input / i;
+            }
+
+        }
+        return a;
+    }
+
+}